@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("application")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 repositories {
@@ -13,18 +14,83 @@ dependencies {
     testImplementation("junit:junit:4.13")
 }
 
+// the Vector API used by SIMD bit-vector facts is an incubator module,
+// thus the SIMD operations are kept in source set "vector", which only
+// the benchmarks and the opt-in tasks runSimd and vectorTest use; without
+// it, option simd falls back to the scalar operations
+val vectorModule = listOf("--add-modules", "jdk.incubator.vector")
+
+val vector: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+val vectorTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output + vector.output
+    runtimeClasspath += sourceSets.main.get().output + vector.output
+}
+
+configurations["vectorTestImplementation"].extendsFrom(configurations.testImplementation.get())
+
+dependencies {
+    "jmhImplementation"(vector.output)
+}
+
 application {
     mainClass.set("pascal.taie.Assignment")
 }
 
-tasks.compileJava { options.encoding = "UTF-8" }
-tasks.compileTestJava { options.encoding = "UTF-8" }
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+listOf(vector, vectorTest).forEach {
+    tasks.named<JavaCompile>(it.compileJavaTaskName) {
+        options.compilerArgs.addAll(vectorModule)
+    }
+}
 
 tasks.test {
     useJUnit()
     maxHeapSize = "4G"
 }
 
+tasks.register<Test>("vectorTest") {
+    group = "verification"
+    description = "Runs the tests of the SIMD operations of bit-vector facts."
+    testClassesDirs = vectorTest.output.classesDirs
+    classpath = vectorTest.runtimeClasspath
+    useJUnit()
+    jvmArgs(vectorModule)
+}
+
+tasks.register<JavaExec>("runSimd") {
+    group = "application"
+    description = "Runs the application with the SIMD operations of bit-vector facts."
+    classpath = sourceSets.main.get().runtimeClasspath + vector.output
+    mainClass.set(application.mainClass)
+    maxHeapSize = "4G"
+    jvmArgs(vectorModule)
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    jvmArgs.addAll(
+        "-Xmx4G",
+        "--add-modules=jdk.incubator.vector",
+        "-Dtaie.bench.resources=${projectDir.resolve("src/test/resources/dataflow")}"
+    )
+}
+
+tasks.register<JavaExec>("scaleRun") {
+    group = "benchmark"
+    description = "Measures time and memory of the analyses on synthetic methods."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("pascal.taie.bench.ScaleRunner")
+    maxHeapSize = "4G"
+    jvmArgs(vectorModule)
+}
+
 java {
     toolchain {
         languageVersion.set(JavaLanguageVersion.of(17))
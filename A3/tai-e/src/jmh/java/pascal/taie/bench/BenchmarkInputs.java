@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inputs of the benchmarks, i.e., IRs (with their CFGs) and analyses.
+ * <p>
+ * An input is either {@code programs}, i.e., all methods of the test
+ * programs under {@code src/test/resources/dataflow} (the directory
+ * can be changed by system property {@code taie.bench.resources}),
+ * or {@code synthetic-N}, i.e., synthetic methods of about N statements
+ * generated by {@link SyntheticIRGenerator}.
+ */
+public final class BenchmarkInputs {
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Number of statements of all synthetic methods of an input.
+     */
+    private static final int SYNTHETIC_TOTAL_STMTS = 100_000;
+
+    private static final CFGBuilder CFG_BUILDER = new CFGBuilder(
+            new AnalysisConfig(CFGBuilder.ID, "exception", "none", "dump", false));
+
+    /**
+     * @return the IRs of given input, whose CFGs have been built.
+     */
+    public static List<IR> load(String input) {
+        List<IR> irs;
+        if (input.equals("programs")) {
+            irs = loadPrograms(System.getProperty(
+                    "taie.bench.resources", "src/test/resources/dataflow"));
+        } else if (input.startsWith("synthetic-")) {
+            int stmts = Integer.parseInt(input.substring("synthetic-".length()));
+            SyntheticIRGenerator generator = new SyntheticIRGenerator(0);
+            irs = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, SYNTHETIC_TOTAL_STMTS / stmts); ++i) {
+                irs.add(generator.generate(SyntheticIRGenerator.Shape.of(stmts)));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown benchmark input: " + input);
+        }
+        irs.forEach(BenchmarkInputs::buildCFG);
+        return irs;
+    }
+
+    /**
+     * Builds the CFG of given IR and stores it in the IR.
+     */
+    public static void buildCFG(IR ir) {
+        ir.storeResult(CFGBuilder.ID, CFG_BUILDER.analyze(ir));
+    }
+
+    /**
+     * Loads the IRs of the methods of the test programs in the
+     * subdirectories of given directory.
+     */
+    private static List<IR> loadPrograms(String dir) {
+        List<IR> irs = new ArrayList<>();
+        File[] suites = new File(dir).listFiles(File::isDirectory);
+        if (suites == null) {
+            throw new IllegalArgumentException("Cannot find test programs in " + dir);
+        }
+        Arrays.sort(suites);
+        for (File suite : suites) {
+            File[] programs = suite.listFiles((d, name) -> name.endsWith(".java"));
+            if (programs == null) {
+                continue;
+            }
+            Arrays.sort(programs);
+            for (File program : programs) {
+                String main = program.getName().replace(".java", "");
+                Main.buildWorld("-pp", "-cp", suite.getPath(), "-m", main);
+                World.get().getClassHierarchy()
+                        .applicationClasses()
+                        .flatMap(c -> c.getDeclaredMethods().stream())
+                        .filter(m -> !m.isAbstract() && !m.isNative())
+                        .map(JMethod::getIR)
+                        .forEach(irs::add);
+            }
+        }
+        return irs;
+    }
+
+    /**
+     * @return n int variables whose indexes range from 0 to n - 1.
+     */
+    public static List<Var> newIntVars(int n) {
+        List<Var> vars = new ArrayList<>(n);
+        for (int i = 0; i < n; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        return vars;
+    }
+
+    /**
+     * Creates an analysis from its ID and options, in the format
+     * of command-line option {@code -a}, e.g., {@code livevar},
+     * {@code constprop=dense:false;compiled:false}.
+     */
+    public static MethodAnalysis makeAnalysis(String spec) {
+        String[] idOptions = spec.split("=", 2);
+        String id = idOptions[0];
+        List<Object> kvs = new ArrayList<>();
+        if (idOptions.length > 1) {
+            for (String option : idOptions[1].split(";")) {
+                String[] kv = option.split(":", 2);
+                kvs.add(kv[0]);
+                kvs.add(switch (kv[1]) {
+                    case "true" -> true;
+                    case "false" -> false;
+                    default -> kv[1];
+                });
+            }
+        }
+        AnalysisConfig config = new AnalysisConfig(id, kvs.toArray());
+        return switch (id) {
+            case LiveVariableAnalysis.ID -> new LiveVariableAnalysis(config);
+            case ConstantPropagation.ID -> new ConstantPropagation(config);
+            case DeadCodeDetection.ID -> new DeadCodeDetection(config);
+            default -> throw new IllegalArgumentException("Unknown analysis: " + id);
+        };
+    }
+
+    /**
+     * Runs the analyses required by {@link DeadCodeDetection} on given IR
+     * and stores their results in the IR.
+     */
+    public static void prepareDeadCode(IR ir) {
+        ir.storeResult(LiveVariableAnalysis.ID,
+                makeAnalysis(LiveVariableAnalysis.ID).analyze(ir));
+        ir.storeResult(ConstantPropagation.ID,
+                makeAnalysis(ConstantPropagation.ID).analyze(ir));
+    }
+}
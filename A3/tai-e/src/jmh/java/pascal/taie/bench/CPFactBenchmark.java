@@ -0,0 +1,127 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.PersistentCPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of {@link CPFact}s over facts of
+ * variables of given size. Meeting uses
+ * {@link ConstantPropagation#meetInto(CPFact, CPFact)}, thus it
+ * benefits from the fast paths of the representations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPFactBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int size;
+
+    /**
+     * map: {@link CPFact}; dense: {@link DenseCPFact};
+     * persistent: {@link PersistentCPFact}.
+     */
+    @Param({"map", "dense", "persistent"})
+    private String representation;
+
+    private ConstantPropagation constprop;
+
+    private CPFact fact1;
+
+    private CPFact fact2;
+
+    private CPFact fact1Copy;
+
+    @Setup
+    public void setup() {
+        constprop = (ConstantPropagation) BenchmarkInputs
+                .makeAnalysis(ConstantPropagation.ID);
+        List<Var> vars = BenchmarkInputs.newIntVars(size);
+        fact1 = newFact(vars);
+        fact2 = newFact(vars);
+        Random random = new Random(0);
+        for (Var var : vars) {
+            fact1.update(var, randomValue(random));
+            fact2.update(var, randomValue(random));
+        }
+        fact1Copy = fact1.copy();
+    }
+
+    private CPFact newFact(List<Var> vars) {
+        return switch (representation) {
+            case "map" -> new CPFact();
+            case "dense" -> new DenseCPFact(vars::get, vars.size());
+            case "persistent" -> new PersistentCPFact();
+            default -> throw new IllegalArgumentException(representation);
+        };
+    }
+
+    private static Value randomValue(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> Value.getUndef();
+            case 1 -> Value.getNAC();
+            default -> Value.makeConstant(random.nextInt(4));
+        };
+    }
+
+    @Benchmark
+    public CPFact copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public CPFact meet() {
+        CPFact target = fact2.copy();
+        constprop.meetInto(fact1, target);
+        return target;
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return fact1.equals(fact1Copy);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks storing and querying the facts of all nodes of all methods
+ * of an input in {@link DataflowResult}s.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataflowResultBenchmark {
+
+    private static final Object FACT = new Object();
+
+    @Param({"programs", "synthetic-1000"})
+    private String input;
+
+    /**
+     * map: {@link DataflowResult}; indexed: {@link IndexedDataflowResult}.
+     */
+    @Param({"map", "indexed"})
+    private String representation;
+
+    private List<CFG<Stmt>> cfgs;
+
+    private List<DataflowResult<Stmt, Object>> results;
+
+    @Setup
+    public void setup() {
+        cfgs = new ArrayList<>();
+        for (IR ir : BenchmarkInputs.load(input)) {
+            cfgs.add(ir.getResult(CFGBuilder.ID));
+        }
+        results = fill();
+    }
+
+    private DataflowResult<Stmt, Object> newResult(CFG<Stmt> cfg) {
+        return switch (representation) {
+            case "map" -> new DataflowResult<>();
+            case "indexed" -> new IndexedDataflowResult<>(cfg.getNumberOfNodes());
+            default -> throw new IllegalArgumentException(representation);
+        };
+    }
+
+    @Benchmark
+    public List<DataflowResult<Stmt, Object>> fill() {
+        List<DataflowResult<Stmt, Object>> results = new ArrayList<>(cfgs.size());
+        for (CFG<Stmt> cfg : cfgs) {
+            DataflowResult<Stmt, Object> result = newResult(cfg);
+            for (Stmt node : cfg) {
+                result.setInFact(node, FACT);
+                result.setOutFact(node, FACT);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    @Benchmark
+    public void query(Blackhole bh) {
+        for (int i = 0; i < cfgs.size(); ++i) {
+            DataflowResult<Stmt, Object> result = results.get(i);
+            for (Stmt node : cfgs.get(i)) {
+                bh.consume(result.getInFact(node));
+                bh.consume(result.getOutFact(node));
+            }
+        }
+    }
+}
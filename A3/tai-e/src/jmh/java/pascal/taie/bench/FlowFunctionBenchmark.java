@@ -0,0 +1,165 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the transfer and meet functions of the data-flow analyses
+ * in isolation from the solvers. Each benchmark applies the function
+ * once to every node of all methods of an input, using the facts of
+ * the solved results, so that the facts are as realistic as possible.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlowFunctionBenchmark {
+
+    @Param({"programs", "synthetic-1000"})
+    private String input;
+
+    @Param({
+            "livevar",
+            "livevar=bit-vector:false",
+            "livevar=simd:true",
+            "constprop",
+            "constprop=dense:false",
+            "constprop=compiled:false",
+    })
+    private String analysis;
+
+    private List<SolvedMethod<?>> methods;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        AbstractDataflowAnalysis<Stmt, ?> dataflow =
+                (AbstractDataflowAnalysis<Stmt, ?>) BenchmarkInputs.makeAnalysis(analysis);
+        methods = new ArrayList<>();
+        for (IR ir : BenchmarkInputs.load(input)) {
+            methods.add(new SolvedMethod<>(dataflow, ir));
+        }
+    }
+
+    @Benchmark
+    public void transfer(Blackhole bh) {
+        for (SolvedMethod<?> method : methods) {
+            bh.consume(method.transfer());
+        }
+    }
+
+    @Benchmark
+    public void meet(Blackhole bh) {
+        for (SolvedMethod<?> method : methods) {
+            bh.consume(method.meet());
+        }
+    }
+
+    private static class SolvedMethod<Fact> {
+
+        private final CFG<Stmt> cfg;
+
+        /**
+         * The analysis specialized for {@link #cfg}.
+         */
+        private final DataflowAnalysis<Stmt, Fact> analysis;
+
+        private final DataflowResult<Stmt, Fact> result;
+
+        /**
+         * The fact to which the functions write their results.
+         */
+        private final Fact scratch;
+
+        private SolvedMethod(AbstractDataflowAnalysis<Stmt, Fact> analysis, IR ir) {
+            this.cfg = ir.getResult(CFGBuilder.ID);
+            this.analysis = analysis.specialize(cfg);
+            this.result = analysis.analyze(ir);
+            this.scratch = analysis.newInitialFact(cfg);
+        }
+
+        /**
+         * Transfers the solved in (out) fact of each node to
+         * {@link #scratch} in forward (backward) analysis.
+         */
+        private boolean transfer() {
+            boolean changed = false;
+            if (analysis.isForward()) {
+                for (Stmt node : cfg) {
+                    changed |= analysis.transferNode(node, result.getInFact(node), scratch);
+                }
+            } else {
+                for (Stmt node : cfg) {
+                    changed |= analysis.transferNode(node, scratch, result.getOutFact(node));
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Meets the solved facts of the predecessors (successors) of each
+         * node into {@link #scratch} in forward (backward) analysis.
+         */
+        private Fact meet() {
+            if (analysis.isForward()) {
+                for (Stmt node : cfg) {
+                    for (Stmt pred : cfg.getPredsOf(node)) {
+                        analysis.meetInto(result.getOutFact(pred), scratch);
+                    }
+                }
+            } else {
+                for (Stmt node : cfg) {
+                    for (Stmt succ : cfg.getSuccsOf(node)) {
+                        analysis.meetInto(result.getInFact(succ), scratch);
+                    }
+                }
+            }
+            return scratch;
+        }
+    }
+}
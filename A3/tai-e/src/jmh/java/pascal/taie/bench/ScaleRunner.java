@@ -0,0 +1,153 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.bench.SyntheticIRGenerator.Shape;
+import pascal.taie.ir.IR;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the time and memory of analyzing synthetic methods of given
+ * shapes (see {@link SyntheticIRGenerator.Shape}), which reveals how the
+ * analyses scale with the size and structure of methods.
+ * <p>
+ * Usage: {@code ScaleRunner [--analyses=a1,a2,...] [--repeat=n] shape...},
+ * where the analyses are given in the format of
+ * {@link BenchmarkInputs#makeAnalysis(String)}. Without shapes, it runs a series of shapes of
+ * increasing sizes. For each shape and analysis, it prints the median
+ * time of the runs, the bytes allocated by a run, and the heap retained
+ * by the result, as CSV.
+ */
+public final class ScaleRunner {
+
+    private static final String CSV_HEADER =
+            "shape,analysis,nodes,time-ms,ns-per-node,allocated-mb,retained-mb";
+
+    private static final List<String> DEFAULT_ANALYSES = List.of(
+            "livevar", "constprop", "deadcode");
+
+    private static final List<String> DEFAULT_SHAPES = List.of(
+            "stmts=1000,switch-width=4",
+            "stmts=5000,switch-width=4",
+            "stmts=10000,switch-width=4",
+            "stmts=20000,switch-width=4",
+            "stmts=50000,switch-width=4");
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    private ScaleRunner() {
+    }
+
+    public static void main(String[] args) {
+        List<String> analyses = DEFAULT_ANALYSES;
+        int repeat = 5;
+        List<String> shapes = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--analyses=")) {
+                String value = arg.substring("--analyses=".length());
+                analyses = Arrays.asList(value.split(","));
+            } else if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(arg.substring("--repeat=".length()));
+            } else {
+                shapes.add(arg);
+            }
+        }
+        if (shapes.isEmpty()) {
+            shapes = DEFAULT_SHAPES;
+        }
+        System.out.println(CSV_HEADER);
+        for (String spec : shapes) {
+            Shape shape = Shape.parse(spec);
+            IR ir = new SyntheticIRGenerator(0).generate(shape);
+            BenchmarkInputs.buildCFG(ir);
+            for (String analysis : analyses) {
+                System.out.println(run(shape, ir, analysis, repeat));
+            }
+        }
+    }
+
+    /**
+     * Analyzes given IR repeatedly (after a warm-up run) and returns
+     * the measurements as a CSV row.
+     */
+    private static String run(Shape shape, IR ir, String spec, int repeat) {
+        MethodAnalysis analysis = BenchmarkInputs.makeAnalysis(spec);
+        if (analysis instanceof DeadCodeDetection) {
+            BenchmarkInputs.prepareDeadCode(ir);
+        }
+        analysis.analyze(ir); // warm up
+        long[] times = new long[repeat];
+        long allocated = 0;
+        for (int i = 0; i < repeat; ++i) {
+            long allocatedBefore = getAllocatedBytes();
+            long start = System.nanoTime();
+            analysis.analyze(ir);
+            times[i] = System.nanoTime() - start;
+            allocated += getAllocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(times);
+        long time = times[repeat / 2];
+        long usedBefore = getUsedHeap();
+        Object result = analysis.analyze(ir);
+        long retained = getUsedHeap() - usedBefore;
+        Reference.reachabilityFence(result);
+        CFG<?> cfg = ir.getResult(CFGBuilder.ID);
+        int nodes = cfg.getNumberOfNodes();
+        return String.format("\"%s\",\"%s\",%d,%.3f,%.1f,%.3f,%.3f",
+                shape, spec, nodes, time / 1e6, (double) time / nodes,
+                allocated / (double) repeat / MB, Math.max(0, retained) / MB);
+    }
+
+    /**
+     * @return the number of bytes allocated by the current thread,
+     * or 0 if the JVM does not support measuring it.
+     */
+    private static long getAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the used heap after garbage collection.
+     */
+    private static long getUsedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
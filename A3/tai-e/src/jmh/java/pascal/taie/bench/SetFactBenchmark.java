@@ -0,0 +1,117 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.ir.exp.Var;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations of {@link SetFact}s, which are used by
+ * live variable analysis, over facts of variables of given size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetFactBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int size;
+
+    /**
+     * hybrid: {@link SetFact}; bitset: {@link BitSetFact};
+     * bitset-simd: {@link BitSetFact} operated by SIMD instructions.
+     */
+    @Param({"hybrid", "bitset", "bitset-simd"})
+    private String representation;
+
+    private SetFact<Var> fact1;
+
+    private SetFact<Var> fact2;
+
+    private SetFact<Var> fact1Copy;
+
+    @Setup
+    public void setup() {
+        List<Var> vars = BenchmarkInputs.newIntVars(size);
+        fact1 = newFact(vars);
+        fact2 = newFact(vars);
+        Random random = new Random(0);
+        for (Var var : vars) {
+            if (random.nextBoolean()) {
+                fact1.add(var);
+            }
+            if (random.nextBoolean()) {
+                fact2.add(var);
+            }
+        }
+        fact1Copy = fact1.copy();
+    }
+
+    private SetFact<Var> newFact(List<Var> vars) {
+        return switch (representation) {
+            case "hybrid" -> new SetFact<>();
+            case "bitset" -> new BitSetFact<>(vars::get, vars.size());
+            case "bitset-simd" -> new BitSetFact<>(vars::get, vars.size(), true);
+            default -> throw new IllegalArgumentException(representation);
+        };
+    }
+
+    @Benchmark
+    public SetFact<Var> copy() {
+        return fact1.copy();
+    }
+
+    @Benchmark
+    public SetFact<Var> union() {
+        return fact1.unionWith(fact2);
+    }
+
+    @Benchmark
+    public SetFact<Var> intersect() {
+        return fact1.intersectWith(fact2);
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return fact1.equals(fact1Copy);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.ir.IR;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks analyzing all methods of an input (see {@link BenchmarkInputs})
+ * from scratch, i.e., the full-solve throughput of the data-flow analyses
+ * with different solvers and fact representations. For dead code
+ * detection, the results of the required analyses are computed in advance.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+
+    @Param({"programs", "synthetic-100", "synthetic-1000", "synthetic-10000"})
+    private String input;
+
+    @Param({
+            "livevar",
+            "livevar=bit-vector:false",
+            "livevar=simd:true",
+            "livevar=block-level:true",
+            "livevar=iteration:wto",
+            "constprop",
+            "constprop=dense:false",
+            "constprop=compiled:false",
+            "constprop=block-level:true",
+            "constprop=iteration:wto",
+            "constprop=sparse:true",
+            "deadcode",
+    })
+    private String analysis;
+
+    private List<IR> irs;
+
+    private MethodAnalysis methodAnalysis;
+
+    @Setup
+    public void setup() {
+        irs = BenchmarkInputs.load(input);
+        methodAnalysis = BenchmarkInputs.makeAnalysis(analysis);
+        if (methodAnalysis instanceof DeadCodeDetection) {
+            irs.forEach(BenchmarkInputs::prepareDeadCode);
+        }
+    }
+
+    @Benchmark
+    public void analyze(Blackhole bh) {
+        for (IR ir : irs) {
+            bh.consume(methodAnalysis.analyze(ir));
+        }
+    }
+}
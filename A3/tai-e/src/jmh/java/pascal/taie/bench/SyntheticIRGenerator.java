@@ -0,0 +1,285 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.bench;
+
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Nop;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.TableSwitch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates IRs of synthetic methods of given {@link Shape}, which consist
+ * of assignments of int variables, if-else chains, switches and while
+ * loops nested randomly. The generated IRs are deterministic for the
+ * same seed and shape.
+ */
+public class SyntheticIRGenerator {
+
+    /**
+     * Maximum nesting depth of branches, i.e., if-else chains and switches.
+     */
+    private static final int MAX_BRANCH_DEPTH = 3;
+
+    private static final ArithmeticExp.Op[] ARITHMETIC_OPS = {
+            ArithmeticExp.Op.ADD, ArithmeticExp.Op.SUB, ArithmeticExp.Op.MUL,
+    };
+
+    private final Random random;
+
+    private Shape shape;
+
+    private List<Var> vars;
+
+    private List<Stmt> stmts;
+
+    public SyntheticIRGenerator(long seed) {
+        random = new Random(seed);
+    }
+
+    /**
+     * Shape of the synthetic methods.
+     *
+     * @param stmts       approximate number of statements of a method
+     * @param vars        number of variables, the first two of which are
+     *                    parameters, and the others are initialized to 0
+     * @param loopDepth   maximum nesting depth of loops
+     * @param fanOut      number of arms of if-else chains, at least 2
+     * @param switchWidth number of cases of switches, 0 for no switches
+     */
+    public record Shape(int stmts, int vars, int loopDepth,
+                        int fanOut, int switchWidth) {
+
+        public Shape {
+            if (stmts < 1 || vars < 1 || loopDepth < 0
+                    || fanOut < 2 || switchWidth < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Illegal shape: stmts=%d,vars=%d,loop-depth=%d,fan-out=%d,switch-width=%d",
+                        stmts, vars, loopDepth, fanOut, switchWidth));
+            }
+        }
+
+        /**
+         * Parses a shape from comma-separated key-value pairs, e.g.,
+         * {@code stmts=50000,vars=500,loop-depth=3,fan-out=4,switch-width=8}.
+         * Omitted keys take the values of {@link #of(int)}.
+         */
+        public static Shape parse(String spec) {
+            int stmts = 1000;
+            Integer vars = null;
+            int loopDepth = 3;
+            int fanOut = 2;
+            int switchWidth = 0;
+            for (String kv : spec.split(",")) {
+                String[] pair = kv.split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Illegal shape: " + spec);
+                }
+                int value = Integer.parseInt(pair[1].trim());
+                switch (pair[0].trim()) {
+                    case "stmts" -> stmts = value;
+                    case "vars" -> vars = value;
+                    case "loop-depth" -> loopDepth = value;
+                    case "fan-out" -> fanOut = value;
+                    case "switch-width" -> switchWidth = value;
+                    default -> throw new IllegalArgumentException(
+                            "Unknown shape key: " + pair[0]);
+                }
+            }
+            return new Shape(stmts, vars != null ? vars : defaultVars(stmts),
+                    loopDepth, fanOut, switchWidth);
+        }
+
+        /**
+         * @return the default shape of methods of given number of statements.
+         */
+        public static Shape of(int stmts) {
+            return new Shape(stmts, defaultVars(stmts), 3, 2, 0);
+        }
+
+        private static int defaultVars(int stmts) {
+            return Math.max(4, stmts / 8);
+        }
+
+        @Override
+        public String toString() {
+            return "stmts=" + stmts + ",vars=" + vars +
+                    ",loop-depth=" + loopDepth + ",fan-out=" + fanOut +
+                    ",switch-width=" + switchWidth;
+        }
+    }
+
+    /**
+     * @return IR of a new synthetic method of given shape.
+     */
+    public IR generate(Shape shape) {
+        this.shape = shape;
+        vars = BenchmarkInputs.newIntVars(shape.vars());
+        List<Var> params = vars.subList(0, Math.min(2, vars.size()));
+        stmts = new ArrayList<>(shape.stmts());
+        for (Var var : vars.subList(params.size(), vars.size())) {
+            stmts.add(new AssignLiteral(var, IntLiteral.get(0)));
+        }
+        genBlock(shape.stmts() - stmts.size() - 1, 0, 0);
+        Var result = randomVar();
+        stmts.add(new Return(result));
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+            stmts.get(i).setLineNumber(i);
+        }
+        return new DefaultIR(null, null, new ArrayList<>(params), Set.of(result),
+                vars, stmts, List.of());
+    }
+
+    private void genBlock(int size, int loopDepth, int branchDepth) {
+        int end = stmts.size() + Math.max(1, size);
+        while (stmts.size() < end) {
+            int remaining = end - stmts.size();
+            int kind = random.nextInt(20);
+            if (remaining > 8 && kind < 6) {
+                int bodySize = 1 + random.nextInt(remaining / 2);
+                if (kind < 2 && branchDepth < MAX_BRANCH_DEPTH) {
+                    genIf(bodySize, loopDepth, branchDepth + 1);
+                    continue;
+                } else if (kind < 4 && loopDepth < shape.loopDepth()) {
+                    genLoop(bodySize, loopDepth + 1, branchDepth);
+                    continue;
+                } else if (kind == 4 && shape.switchWidth() > 0
+                        && branchDepth < MAX_BRANCH_DEPTH) {
+                    genSwitch(bodySize, loopDepth, branchDepth + 1);
+                    continue;
+                }
+            }
+            stmts.add(genAssign());
+        }
+    }
+
+    /**
+     * Generates an if-else chain of {@link Shape#fanOut()} arms:
+     * if (c1) goto arm1; ... if (cn-1) goto armn-1; arm0; goto end;
+     * arm1: ...; goto end; ... end: nop
+     */
+    private void genIf(int size, int loopDepth, int branchDepth) {
+        int arms = shape.fanOut();
+        Nop end = new Nop();
+        List<Nop> labels = new ArrayList<>(arms - 1);
+        for (int i = 1; i < arms; ++i) {
+            Nop label = new Nop();
+            If ifStmt = new If(randomCondition());
+            ifStmt.setTarget(label);
+            stmts.add(ifStmt);
+            labels.add(label);
+        }
+        genArm(size / arms, loopDepth, branchDepth, end);
+        for (Nop label : labels) {
+            stmts.add(label);
+            genArm(size / arms, loopDepth, branchDepth, end);
+        }
+        stmts.add(end);
+    }
+
+    /**
+     * Generates a switch of {@link Shape#switchWidth()} cases and a default:
+     * switch (v) { case 0: ...; goto end; ... default: ...; goto end; }
+     * end: nop
+     */
+    private void genSwitch(int size, int loopDepth, int branchDepth) {
+        int width = shape.switchWidth();
+        TableSwitch switchStmt = new TableSwitch(randomVar(), 0, width - 1);
+        stmts.add(switchStmt);
+        Nop end = new Nop();
+        List<Stmt> targets = new ArrayList<>(width);
+        for (int i = 0; i < width; ++i) {
+            Nop label = new Nop();
+            stmts.add(label);
+            targets.add(label);
+            genArm(size / (width + 1), loopDepth, branchDepth, end);
+        }
+        Nop defaultLabel = new Nop();
+        stmts.add(defaultLabel);
+        genArm(size / (width + 1), loopDepth, branchDepth, end);
+        switchStmt.setTargets(targets);
+        switchStmt.setDefaultTarget(defaultLabel);
+        stmts.add(end);
+    }
+
+    private void genArm(int size, int loopDepth, int branchDepth, Nop end) {
+        genBlock(size, loopDepth, branchDepth);
+        Goto gotoEnd = new Goto();
+        gotoEnd.setTarget(end);
+        stmts.add(gotoEnd);
+    }
+
+    /**
+     * Generates: head: if (cond) goto exit; body; goto head; exit: nop
+     */
+    private void genLoop(int size, int loopDepth, int branchDepth) {
+        Nop head = new Nop();
+        Nop exit = new Nop();
+        stmts.add(head);
+        If ifStmt = new If(randomCondition());
+        ifStmt.setTarget(exit);
+        stmts.add(ifStmt);
+        genBlock(size, loopDepth, branchDepth);
+        Goto gotoHead = new Goto();
+        gotoHead.setTarget(head);
+        stmts.add(gotoHead);
+        stmts.add(exit);
+    }
+
+    private Stmt genAssign() {
+        Var lhs = randomVar();
+        return switch (random.nextInt(4)) {
+            case 0 -> new AssignLiteral(lhs, IntLiteral.get(random.nextInt(8)));
+            case 1 -> new Copy(lhs, randomVar());
+            default -> new Binary(lhs, new ArithmeticExp(
+                    ARITHMETIC_OPS[random.nextInt(ARITHMETIC_OPS.length)],
+                    randomVar(), randomVar()));
+        };
+    }
+
+    private ConditionExp randomCondition() {
+        ConditionExp.Op[] ops = ConditionExp.Op.values();
+        return new ConditionExp(ops[random.nextInt(ops.length)],
+                randomVar(), randomVar());
+    }
+
+    private Var randomVar() {
+        return vars.get(random.nextInt(vars.size()));
+    }
+}
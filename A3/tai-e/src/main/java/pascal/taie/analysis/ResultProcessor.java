@@ -25,7 +25,9 @@ package pascal.taie.analysis;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
 import pascal.taie.ir.stmt.Stmt;
@@ -97,6 +99,10 @@ public class ResultProcessor extends ProgramAnalysis {
                 .collect(Collectors.groupingBy(id -> World.get().getResult(id) != null));
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
+            String metricsFormat = getOptions().getString("metrics");
+            if (metricsFormat != null) {
+                dumpMetrics(groups.get(false), metricsFormat);
+            }
         }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
@@ -153,7 +159,11 @@ public class ResultProcessor extends ProgramAnalysis {
     }
 
     private void processIntraResults(List<String> analyses) {
-        Stream<JMethod> methods = World.get()
+        processResults(intraMethods(), analyses, (m, id) -> m.getIR().getResult(id));
+    }
+
+    private static Stream<JMethod> intraMethods() {
+        return World.get()
                 .getClassHierarchy()
                 .applicationClasses()
                 .map(JClass::getDeclaredMethods)
@@ -161,7 +171,45 @@ public class ResultProcessor extends ProgramAnalysis {
                 .filter(m -> !m.isAbstract() && !m.isNative())
                 .sorted(Comparator.comparing(m ->
                         m.getIR().getStmt(0).getLineNumber()));
-        processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
+    }
+
+    /**
+     * Dumps the {@link SolverMetrics} of given analyses, which are recorded
+     * when the analyses run with option {@code metrics: true}, as CSV or JSON
+     * to the file given by option {@code metrics-file} (or standard output).
+     */
+    private void dumpMetrics(List<String> analyses, String format) {
+        if (!format.equals("csv") && !format.equals("json")) {
+            throw new ConfigException("Unknown metrics format: " + format);
+        }
+        List<SolverMetrics> metrics = intraMethods()
+                .flatMap(m -> analyses.stream()
+                        .map(id -> m.getIR().<SolverMetrics>getResult(
+                                SolverMetrics.getKey(id))))
+                .filter(Objects::nonNull)
+                .toList();
+        String output = getOptions().getString("metrics-file");
+        if (output != null) {
+            try (PrintStream metricsOut = new PrintStream(output)) {
+                printMetrics(metrics, format, metricsOut);
+            } catch (FileNotFoundException e) {
+                throw new RuntimeException("Failed to open metrics file", e);
+            }
+        } else {
+            printMetrics(metrics, format, System.out);
+        }
+    }
+
+    private static void printMetrics(List<SolverMetrics> metrics, String format,
+                                     PrintStream metricsOut) {
+        if (format.equals("csv")) {
+            metricsOut.println(SolverMetrics.CSV_HEADER);
+            metrics.forEach(m -> metricsOut.println(m.toCSV()));
+        } else {
+            metricsOut.println(metrics.stream()
+                    .map(SolverMetrics::toJSON)
+                    .collect(Collectors.joining(",\n", "[\n", "\n]")));
+        }
     }
 
     private void processResults(Stream<JMethod> methods, List<String> analyses,
@@ -0,0 +1,335 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.cache;
+
+import pascal.taie.analysis.Analysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * An on-disk cache of the results of a method analysis, which lets
+ * repeated runs over mostly unchanged programs skip re-analyzing
+ * unchanged methods.
+ * <p>
+ * The results are stored as bytes in the files of directory
+ * {@code <cache-dir>/<analysis-id>}, named by the fingerprints of the
+ * methods (see {@link #getKey(CFG)}). The cache is invalidated, i.e.,
+ * all results are discarded, when the options which decide the results
+ * of the analysis change.
+ * When the size of the results exceeds the limit, the least recently
+ * used results are evicted.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ResultCache {
+
+    /**
+     * Version of the format of cached results, which should be increased
+     * when the encoding of results changes.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final String OPTIONS_FILE = "options";
+
+    private static final String RESULT_SUFFIX = ".result";
+
+    private static final String DEFAULT_DIR = ".taie-cache";
+
+    private static final long DEFAULT_SIZE_MB = 1024;
+
+    private final Path dir;
+
+    private final long maxBytes;
+
+    /**
+     * Sizes of the cached results, in the order of access.
+     */
+    private final Map<String, Long> sizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    /**
+     * Opens the cache of the results of an analysis.
+     *
+     * @param dir      directory of the cached results of the analysis
+     * @param stamp    describes the options which decide the results,
+     *                 see {@link #getStamp(AnalysisOptions, List)};
+     *                 if it differs from the stamp of the cached results,
+     *                 the cached results are discarded
+     * @param maxBytes maximum total size of the cached results
+     */
+    public ResultCache(Path dir, String stamp, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        stamp = "version: " + FORMAT_VERSION + "\noptions: " + stamp;
+        try {
+            Files.createDirectories(dir);
+            Path optionsFile = dir.resolve(OPTIONS_FILE);
+            if (Files.exists(optionsFile) &&
+                    Files.readString(optionsFile).equals(stamp)) {
+                loadEntries();
+            } else {
+                clear();
+                Files.writeString(optionsFile, stamp);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open result cache " + dir, e);
+        }
+    }
+
+    /**
+     * Creates the result cache of given analysis as configured by its
+     * options: {@code cache} enables the cache, {@code cache-dir} gives
+     * the root directory of caches (default: {@value #DEFAULT_DIR}), and
+     * {@code cache-size} limits the size of the cache in megabytes
+     * (default: {@value #DEFAULT_SIZE_MB}).
+     *
+     * @param stamp describes the options which decide the results of
+     *              the analysis, see {@link #getStamp(AnalysisOptions, List)}
+     * @return the cache, or null if the cache is disabled.
+     */
+    public static ResultCache of(Analysis analysis, String stamp) {
+        AnalysisOptions options = analysis.getOptions();
+        if (!options.getBooleanOrDefault("cache", false)) {
+            return null;
+        }
+        String root = options.getString("cache-dir");
+        long sizeMB = options.get("cache-size") != null ?
+                options.getInt("cache-size") : DEFAULT_SIZE_MB;
+        return new ResultCache(Path.of(root != null ? root : DEFAULT_DIR)
+                .resolve(analysis.getId()), stamp, sizeMB << 20);
+    }
+
+    /**
+     * Describes the values of given options, so that the options which
+     * only decide how the results are kept and reported, e.g., the ones
+     * of the cache itself, do not invalidate the cached results.
+     *
+     * @param options the options of an analysis
+     * @param keys    the options which decide the results of the analysis
+     * @return the stamp of the results, which lists the given options
+     * which are set.
+     */
+    public static String getStamp(AnalysisOptions options, List<String> keys) {
+        StringBuilder sb = new StringBuilder("{");
+        for (String key : keys) {
+            Object value = options.get(key);
+            if (value != null) {
+                if (sb.length() > 1) {
+                    sb.append(", ");
+                }
+                sb.append(key).append('=').append(value);
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Computes a stable fingerprint of the method of given CFG, which
+     * covers the variables and statements of the IR and the edges of the
+     * CFG, so that it changes whenever the results of the method may change.
+     *
+     * @return the fingerprint, or null if the nodes of the CFG are not
+     * {@link Indexable}, and thus its results cannot be cached.
+     */
+    public static String getKey(CFG<?> cfg) {
+        for (Object node : cfg) {
+            if (!(node instanceof Indexable)) {
+                return null;
+            }
+        }
+        IR ir = cfg.getIR();
+        StringBuilder sb = new StringBuilder();
+        for (Var var : ir.getVars()) {
+            sb.append(var.getName()).append(':').append(var.getType()).append(';');
+        }
+        sb.append("\nparams:").append(ir.getParams());
+        sb.append("\nreturns:").append(ir.getReturnVars());
+        sb.append('\n');
+        for (Stmt stmt : ir) {
+            sb.append(stmt.getIndex()).append(": ").append(stmt).append('\n');
+        }
+        ir.getExceptionEntries().forEach(e -> sb.append(e).append('\n'));
+        appendEdges(cfg, sb);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static <N> void appendEdges(CFG<N> cfg, StringBuilder sb) {
+        List<N> nodes = new ArrayList<>(cfg.getNumberOfNodes());
+        cfg.forEach(nodes::add);
+        nodes.sort(Comparator.comparingInt(n -> ((Indexable) n).getIndex()));
+        for (N node : nodes) {
+            List<String> edges = new ArrayList<>();
+            for (Edge<N> edge : cfg.getOutEdgesOf(node)) {
+                String e = ((Indexable) edge.getTarget()).getIndex() + ":" + edge.getKind();
+                if (edge.isSwitchCase()) {
+                    e += ":" + edge.getCaseValue();
+                }
+                if (edge.isExceptional()) {
+                    e += ":" + edge.getExceptions().stream()
+                            .map(Object::toString).sorted().toList();
+                }
+                edges.add(e);
+            }
+            edges.sort(null);
+            sb.append(((Indexable) node).getIndex()).append("->")
+                    .append(edges).append('\n');
+        }
+    }
+
+    /**
+     * @return the cached result of given key, or null if it is absent.
+     */
+    public synchronized byte[] get(String key) {
+        if (sizes.get(key) == null) {
+            return null;
+        }
+        Path file = getFile(key);
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            // keep the order of access across runs
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return bytes;
+        } catch (IOException e) {
+            // the file has been removed or corrupted, e.g., by other runs
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Caches given result under given key, and evicts the least recently
+     * used results if the size of the cache exceeds the limit.
+     */
+    public synchronized void put(String key, byte[] bytes) {
+        Path file = getFile(key);
+        try {
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write result cache " + file, e);
+        }
+        Long oldSize = sizes.put(key, (long) bytes.length);
+        totalBytes += bytes.length - (oldSize != null ? oldSize : 0);
+        Iterator<Map.Entry<String, Long>> iter = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && iter.hasNext()) {
+            Map.Entry<String, Long> eldest = iter.next();
+            if (eldest.getKey().equals(key)) {
+                continue;
+            }
+            iter.remove();
+            totalBytes -= eldest.getValue();
+            deleteFile(eldest.getKey());
+        }
+    }
+
+    private Path getFile(String key) {
+        return dir.resolve(key + RESULT_SUFFIX);
+    }
+
+    private void remove(String key) {
+        Long size = sizes.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteFile(key);
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(getFile(key));
+        } catch (IOException ignored) {
+            // the file will be overwritten or evicted later
+        }
+    }
+
+    /**
+     * Loads the existing results in the order of their last access.
+     */
+    private void loadEntries() throws IOException {
+        record Entry(String key, long size, FileTime lastAccess) {
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(RESULT_SUFFIX)) {
+                    entries.add(new Entry(
+                            name.substring(0, name.length() - RESULT_SUFFIX.length()),
+                            Files.size(file), Files.getLastModifiedTime(file)));
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::lastAccess));
+        for (Entry entry : entries) {
+            sizes.put(entry.key(), entry.size());
+            totalBytes += entry.size();
+        }
+    }
+
+    /**
+     * Removes all results, including stale temporary files.
+     */
+    private void clear() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(RESULT_SUFFIX) || name.endsWith(".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        sizes.clear();
+        totalBytes = 0;
+    }
+}
@@ -23,29 +23,181 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.cache.ResultCache;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.DataflowResultStore;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
+import pascal.taie.analysis.dataflow.fact.SpilledDataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.dataflow.solver.SolverMetrics;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends MethodAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
+    /**
+     * Default number of spilled results kept on the heap.
+     */
+    private static final int DEFAULT_SPILL_CACHE = 64;
+
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Whether the results are solved at the level of basic blocks,
+     * see {@link Solver#makeSolver(DataflowAnalysis, pascal.taie.config.AnalysisOptions)}.
+     */
+    private final boolean blockLevel;
+
+    /**
+     * Whether intern the facts of the results, see {@link FactInterner}.
+     * The facts of block-level results are recomputed on demand,
+     * thus they are not interned.
+     */
+    private final boolean intern;
+
+    /**
+     * Whether record the {@link SolverMetrics} of solving each CFG
+     * in the results of the IR.
+     */
+    private final boolean metrics;
+
+    /**
+     * Where the results are spilled if option {@code spill} is true,
+     * see {@link DataflowResultStore}. The facts of block-level results
+     * are recomputed on demand, thus they are not spilled.
+     */
+    private final DataflowResultStore store;
+
+    /**
+     * The cross-run cache of the results if option {@code cache} is true.
+     */
+    private final ResultCache cache;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, getOptions());
+        blockLevel = getOptions().getBooleanOrDefault("block-level", false);
+        intern = getOptions().getBooleanOrDefault("intern", false) && !blockLevel;
+        metrics = getOptions().getBooleanOrDefault("metrics", false);
+        if (getOptions().getBooleanOrDefault("spill", false) && !blockLevel) {
+            String dir = getOptions().getString("spill-dir");
+            store = new DataflowResultStore("taie-" + getId() + "-",
+                    dir != null ? Path.of(dir) : null,
+                    getOptions().get("spill-cache") != null ?
+                            getOptions().getInt("spill-cache") :
+                            DEFAULT_SPILL_CACHE);
+        } else {
+            store = null;
+        }
+        cache = ResultCache.of(this,
+                ResultCache.getStamp(getOptions(), getSolvingOptions()));
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
-        return solver.solve(cfg);
+        String key = cache != null ? ResultCache.getKey(cfg) : null;
+        FactCodec<Fact> codec = key != null ? getFactCodec(cfg) : null;
+        DataflowResult<Node, Fact> result = null;
+        if (codec != null) {
+            byte[] bytes = cache.get(key);
+            if (bytes != null) {
+                result = FactCodec.decodeResult(cfg, bytes, codec);
+            }
+        }
+        if (result == null) {
+            result = solve(ir, cfg);
+            if (codec != null) {
+                cache.put(key, FactCodec.encodeResult(cfg, result, codec));
+            }
+        }
+        if (intern) {
+            FactInterner.internAll(cfg, result);
+        }
+        return spill(cfg, result);
+    }
+
+    private DataflowResult<Node, Fact> solve(IR ir, CFG<Node> cfg) {
+        if (metrics) {
+            SolverMetrics m = new SolverMetrics(getId(), cfg);
+            DataflowResult<Node, Fact> result = solver.solve(cfg, m);
+            ir.storeResult(SolverMetrics.getKey(getId()), m);
+            return result;
+        } else {
+            return solver.solve(cfg);
+        }
+    }
+
+    /**
+     * Repairs the result of this analysis after the IR is edited,
+     * see {@link Solver#resolve(CFG, DataflowResult, Collection)}.
+     *
+     * @param ir      the edited IR, whose CFG has been rebuilt
+     * @param result  the result of this analysis before the edits
+     * @param changed the nodes which are added or modified,
+     *                or whose in/out edges changed
+     * @return the repaired result, which is given result updated in place
+     * @throws ConfigException if option {@code block-level} is true, as
+     *                         the facts of block-level results are not stored
+     *                         for the nodes inside blocks
+     */
+    public DataflowResult<Node, Fact> resolve(
+            IR ir, DataflowResult<Node, Fact> result, Collection<Node> changed) {
+        if (blockLevel) {
+            throw new ConfigException("Results of " + getId() +
+                    " with option block-level cannot be repaired");
+        }
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        if (result instanceof SpilledDataflowResult<Node, Fact> spilled) {
+            result = spilled.load();
+        }
+        solver.resolve(cfg, result, changed);
+        if (intern) {
+            FactInterner.internAll(cfg, result);
+        }
+        return spill(cfg, result);
+    }
+
+    /**
+     * @return the options which decide the facts of the results, which
+     * stamp the cached results (see {@link ResultCache}). The other options,
+     * e.g., cache, spill and metrics, only decide how the results are kept
+     * and reported. Note that this is called by the constructor.
+     */
+    protected abstract List<String> getSolvingOptions();
+
+    /**
+     * @return the codec of the facts of given CFG, which is used to spill
+     * the results, or null if the facts cannot be spilled.
+     * By default, it is null.
+     */
+    protected FactCodec<Fact> getFactCodec(CFG<Node> cfg) {
+        return null;
+    }
+
+    /**
+     * Spills given result to {@link #store} if spilling is enabled.
+     */
+    private DataflowResult<Node, Fact> spill(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        if (store != null) {
+            FactCodec<Fact> codec = getFactCodec(cfg);
+            if (codec != null) {
+                return store.spill(cfg, result, codec);
+            }
+        }
+        return result;
     }
 
     /**
@@ -49,12 +49,44 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * Analyses whose facts depend on the method being analyzed, e.g.,
+     * facts indexed by the variables of the method, should override
+     * this method. By default, it is the same as {@link #newInitialFact()}.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
+    /**
+     * @return the analysis used to solve given CFG. Analyses which precompute
+     * data for each CFG, e.g., tables indexed by nodes, can return a view of
+     * this analysis that is bound to the data (see
+     * {@link DelegatingDataflowAnalysis}). By default, it is this analysis.
+     */
+    default DataflowAnalysis<Node, Fact> specialize(CFG<Node> cfg) {
+        return this;
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
      */
     void meetInto(Fact fact, Fact target);
 
+    /**
+     * @return true if {@link #meetInto(Fact, Fact)} can accumulate facts
+     * in place, i.e., the target fact of a node can be kept across
+     * iterations and the facts of its neighbors are repeatedly met into it.
+     * Otherwise, the solver recomputes the target fact from a new initial
+     * fact every time the node is processed. By default, it is true,
+     * which holds for monotone analyses.
+     */
+    default boolean isMeetInPlace() {
+        return true;
+    }
+
     /**
      * Node Transfer function for the analysis.
      * The function transfers data-flow from in (out) fact to out (in) fact
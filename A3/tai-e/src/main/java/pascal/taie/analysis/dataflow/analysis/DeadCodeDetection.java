@@ -22,9 +22,13 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.World;
 import pascal.taie.analysis.MethodAnalysis;
+import pascal.taie.analysis.cache.ResultCache;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConditionalConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.SparseConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.dataflow.fact.SetFact;
@@ -32,92 +36,296 @@ import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigManager;
+import pascal.taie.config.Configs;
+import pascal.taie.config.Options;
+import pascal.taie.config.PlanConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.*;
 import pascal.taie.ir.stmt.*;
 
-import java.util.Comparator;
-import java.util.Queue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
 
 public class DeadCodeDetection extends MethodAnalysis {
 
     public static final String ID = "deadcode";
 
+    /**
+     * The options of {@link ConstantPropagation} which are taken from
+     * the options of this analysis to run SCCP on.
+     */
+    private static final List<String> SCCP_OPTIONS = List.of(
+            "dense", "persistent", "compiled");
+
+    /**
+     * The options of this analysis which decide its results.
+     */
+    private static final List<String> SOLVING_OPTIONS = List.of(
+            "sccp", "demand-liveness", "dense", "persistent", "compiled");
+
+    /**
+     * If not null, unreachable code is found by conditional constant
+     * propagation instead of the result of {@link ConstantPropagation}.
+     */
+    private final ConditionalConstantPropagation sccp;
+
+    /**
+     * Whether query the liveness of the variables defined by assignments
+     * on demand (see {@link LiveVariableQuery}) instead of using the result
+     * of {@link LiveVariableAnalysis}.
+     */
+    private final boolean demandLiveness;
+
+    /**
+     * The cross-run cache of the results if option {@code cache} is true.
+     * The cached results are stamped with the solving options of this
+     * analysis and of the analyses whose results it uses.
+     */
+    private final ResultCache cache;
+
     public DeadCodeDetection(AnalysisConfig config) {
         super(config);
+        demandLiveness = getOptions().getBooleanOrDefault("demand-liveness", false);
+        sccp = getOptions().getBooleanOrDefault("sccp", false) ?
+                new ConditionalConstantPropagation(
+                        new ConstantPropagation(getConstPropConfig())) :
+                null;
+        cache = getOptions().getBooleanOrDefault("cache", false) ?
+                ResultCache.of(this, getStamp(getConfigs())) : null;
+    }
+
+    /**
+     * @return the config of the constant propagation which SCCP runs on,
+     * whose options in {@link #SCCP_OPTIONS} are given by this analysis.
+     * The other options are not set, so that creating the analysis
+     * does not set up its cache, spilling or metrics.
+     */
+    private AnalysisConfig getConstPropConfig() {
+        List<Object> keyValues = new ArrayList<>();
+        SCCP_OPTIONS.forEach(key -> {
+            Object value = getOptions().get(key);
+            if (value != null) {
+                keyValues.add(key);
+                keyValues.add(value);
+            }
+        });
+        return new AnalysisConfig(ConstantPropagation.ID, keyValues.toArray());
+    }
+
+    /**
+     * @return the configs of all analyses, with the options registered in
+     * the analysis config and overwritten by the plan.
+     */
+    private static List<AnalysisConfig> getConfigs() {
+        List<AnalysisConfig> configs = AnalysisConfig.parseConfigs(
+                Configs.getAnalysisConfig());
+        World world = World.get();
+        Options options = world != null ? world.getOptions() : null;
+        if (options != null) {
+            if (!options.getAnalyses().isEmpty()) {
+                new ConfigManager(configs).overwriteOptions(
+                        PlanConfig.readConfigs(options));
+            } else if (options.getPlanFile() != null) {
+                new ConfigManager(configs).overwriteOptions(
+                        PlanConfig.readConfigs(options.getPlanFile()));
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * @return the stamp of the cached results, which covers the solving
+     * options of this analysis, and of constant propagation (unless
+     * SCCP is used) and live variable analysis (unless liveness is
+     * queried on demand) in given configs, whose results decide dead code.
+     */
+    private String getStamp(List<AnalysisConfig> configs) {
+        StringBuilder sb = new StringBuilder(
+                ResultCache.getStamp(getOptions(), SOLVING_OPTIONS));
+        configs.forEach(c -> {
+            if (sccp == null && c.getId().equals(ConstantPropagation.ID)) {
+                sb.append(' ').append(c.getId()).append(ResultCache.getStamp(
+                        c.getOptions(), ConstantPropagation.SOLVING_OPTIONS));
+            } else if (!demandLiveness && c.getId().equals(LiveVariableAnalysis.ID)) {
+                sb.append(' ').append(c.getId()).append(ResultCache.getStamp(
+                        c.getOptions(), LiveVariableAnalysis.SOLVING_OPTIONS));
+            }
+        });
+        return sb.toString();
     }
 
     @Override
     public Set<Stmt> analyze(IR ir) {
         // obtain CFG
         CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        String key = cache != null ? ResultCache.getKey(cfg) : null;
+        if (key != null) {
+            byte[] bytes = cache.get(key);
+            if (bytes != null) {
+                return decode(ir, bytes);
+            }
+        }
+        Set<Stmt> deadCode = sccp != null ?
+                analyzeConditional(ir, cfg) : analyze(ir, cfg);
+        if (key != null) {
+            cache.put(key, encode(deadCode));
+        }
+        return deadCode;
+    }
+
+    /**
+     * Finds dead code in linear time. The statements reachable from
+     * the entry through feasible edges are marked in a bit set over
+     * statement indexes, where the feasibility of the branches is
+     * decided by the constants at the branch statements. Then dead code
+     * is emitted in a single pass over the statements.
+     */
+    private Set<Stmt> analyze(IR ir, CFG<Stmt> cfg) {
         // obtain result of constant propagation
         DataflowResult<Stmt, CPFact> constants =
                 ir.getResult(ConstantPropagation.ID);
-        // obtain result of live variable analysis
-        DataflowResult<Stmt, SetFact<Var>> liveVars =
-                ir.getResult(LiveVariableAnalysis.ID);
-        // keep statements (dead code) sorted in the resulting set
-        Set<Stmt> deadCode = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        ir.stmts().forEach(deadCode::add);
-
-        Queue<Stmt> workList = new java.util.LinkedList<>();
-        Set<Stmt> visited = new TreeSet<>(Comparator.comparing(Stmt::getIndex));
-        workList.add(cfg.getEntry());
-        Stmt p;
-        while ((p = workList.poll()) != null) {
-            deadCode.remove(p);
-            if (!visited.add(p)) continue;
-            if (p instanceof Return) {
-            } else if (p instanceof If i) {
-                Value v = ConstantPropagation.evaluate(i.getCondition(), constants.getInFact(p));
-                if (v.isNAC()) {
-                    workList.addAll(cfg.getSuccsOf(p));
-                    continue;
-                }
-                assert v.isConstant();
-                int cs = v.getConstant();
-                cfg.getOutEdgesOf(p).forEach(e -> {
-                    if (e.getKind() == Edge.Kind.IF_TRUE && cs != 0) workList.add(e.getTarget());
-                    if (e.getKind() == Edge.Kind.IF_FALSE && cs == 0) workList.add(e.getTarget());
-                });
-            } else if (p instanceof SwitchStmt c) {
-                Value v = ConstantPropagation.evaluate(c.getVar(), constants.getInFact(p));
-                if (v.isNAC()) {
-                    workList.addAll(cfg.getSuccsOf(p));
-                    continue;
+        Stmt entry = cfg.getEntry();
+        // entry and exit have the largest indexes; unlike this bound,
+        // cfg.getNumberOfNodes() may copy all nodes
+        int capacity = Math.max(entry.getIndex(), cfg.getExit().getIndex()) + 1;
+        BitSet reachable = new BitSet(capacity);
+        // each statement is pushed at most once, when it is marked
+        Stmt[] workList = new Stmt[capacity];
+        int size = 0;
+        reachable.set(entry.getIndex());
+        workList[size++] = entry;
+        while (size > 0) {
+            Stmt stmt = workList[--size];
+            Value cond = evaluateCondition(stmt, constants);
+            for (Edge<Stmt> edge : cfg.getOutEdgesOf(stmt)) {
+                Stmt target = edge.getTarget();
+                if (!reachable.get(target.getIndex()) && isFeasible(edge, cond)) {
+                    reachable.set(target.getIndex());
+                    workList[size++] = target;
                 }
-                assert v.isConstant();
-                int cv = v.getConstant();
-                boolean found = false;
-                for (Edge<Stmt> e : cfg.getOutEdgesOf(p)) {
-                    if (e.getKind() == Edge.Kind.SWITCH_CASE
-                            && e.getCaseValue() == cv
-                    ) {
-                        workList.add(e.getTarget());
-                        found = true;
-                    }
-                }
-                if (!found) {
-                    cfg.getOutEdgesOf(p).stream()
-                            .filter(e -> e.getKind() == Edge.Kind.SWITCH_DEFAULT)
-                            .findFirst().ifPresent(e -> workList.add(e.getTarget()));
-                }
-            } else if (p instanceof AssignStmt<?, ?> a) {
-                RValue r = a.getRValue();
-                LValue l = a.getLValue();
-                if (l instanceof Var lv)
-                    if (hasNoSideEffect(r) && !liveVars.getOutFact(p).contains(lv)) {
-                        deadCode.add(p);
-                    }
-                workList.addAll(cfg.getSuccsOf(p));
-            } else {
-                workList.addAll(cfg.getSuccsOf(p));
-                System.err.println("Unknown statement type: " + p.getClass() + " " + p);
             }
         }
+        return collectDeadCode(ir, stmt -> reachable.get(stmt.getIndex()),
+                getLiveness(ir, cfg));
+    }
+
+    /**
+     * @return the value of the condition of given branch statement
+     * (i.e., {@link If} or {@link SwitchStmt}), or null if the statement
+     * is not a branch.
+     */
+    private static Value evaluateCondition(
+            Stmt stmt, DataflowResult<Stmt, CPFact> constants) {
+        if (stmt instanceof If ifStmt) {
+            return evaluate(ifStmt.getCondition(), stmt, constants);
+        } else if (stmt instanceof SwitchStmt switchStmt) {
+            return evaluate(switchStmt.getVar(), stmt, constants);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if given edge may be taken when the condition of
+     * its source is given value. Only constant conditions rule out edges.
+     */
+    private static boolean isFeasible(Edge<Stmt> edge, Value cond) {
+        if (cond == null || !cond.isConstant()) {
+            return true;
+        }
+        int value = cond.getConstant();
+        return switch (edge.getKind()) {
+            case IF_TRUE -> value != 0;
+            case IF_FALSE -> value == 0;
+            case SWITCH_CASE -> edge.getCaseValue() == value;
+            case SWITCH_DEFAULT -> !((SwitchStmt) edge.getSource())
+                    .getCaseValues().contains(value);
+            default -> true;
+        };
+    }
+
+    /**
+     * Collects the unreachable statements and the dead assignments
+     * in a single pass over the statements, thus the resulting set
+     * is ordered by statement indexes.
+     *
+     * @param reachable tells whether a statement is reachable
+     * @param liveVars  tells whether a variable is live after a statement,
+     *                  which is queried only at reachable assignments
+     *                  without side effect
+     */
+    private static Set<Stmt> collectDeadCode(
+            IR ir, Predicate<Stmt> reachable, BiPredicate<Stmt, Var> liveVars) {
+        Set<Stmt> deadCode = new LinkedHashSet<>();
+        for (Stmt stmt : ir) {
+            if (!reachable.test(stmt)) {
+                deadCode.add(stmt);
+            } else if (stmt instanceof AssignStmt<?, ?> assign
+                    && assign.getLValue() instanceof Var lhs
+                    && hasNoSideEffect(assign.getRValue())
+                    && !liveVars.test(stmt, lhs)) {
+                deadCode.add(stmt);
+            }
+        }
+        return deadCode;
+    }
+
+    /**
+     * @return the predicate which tells whether a variable is live
+     * after a statement.
+     */
+    private BiPredicate<Stmt, Var> getLiveness(IR ir, CFG<Stmt> cfg) {
+        if (demandLiveness) {
+            return new LiveVariableQuery(cfg)::isLiveOut;
+        }
+        DataflowResult<Stmt, SetFact<Var>> liveVars =
+                ir.getResult(LiveVariableAnalysis.ID);
+        return (stmt, var) -> liveVars.getOutFact(stmt).contains(var);
+    }
+
+    /**
+     * @return the value of given expression before given statement.
+     */
+    private static Value evaluate(
+            Exp exp, Stmt stmt, DataflowResult<Stmt, CPFact> constants) {
+        if (constants instanceof SparseConstantPropagation.Result sparse) {
+            // look up the used variables without materializing the facts
+            return ConstantPropagation.evaluate(exp, v -> sparse.getValue(stmt, v));
+        }
+        return ConstantPropagation.evaluate(exp, constants.getInFact(stmt));
+    }
+
+    /**
+     * Finds dead code by conditional constant propagation, which
+     * computes constants and reachability in one pass.
+     */
+    private Set<Stmt> analyzeConditional(IR ir, CFG<Stmt> cfg) {
+        ConditionalConstantPropagation.Result result = sccp.solve(cfg);
+        return collectDeadCode(ir, result::isReachable, getLiveness(ir, cfg));
+    }
+
+    /**
+     * Encodes dead code as the indexes of the statements.
+     */
+    private static byte[] encode(Set<Stmt> deadCode) {
+        ByteBuffer buffer = ByteBuffer.allocate(deadCode.size() * Integer.BYTES);
+        deadCode.forEach(stmt -> buffer.putInt(stmt.getIndex()));
+        return buffer.array();
+    }
+
+    private static Set<Stmt> decode(IR ir, byte[] bytes) {
+        Set<Stmt> deadCode = new LinkedHashSet<>();
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            deadCode.add(ir.getStmt(buffer.getInt()));
+        }
         return deadCode;
     }
 
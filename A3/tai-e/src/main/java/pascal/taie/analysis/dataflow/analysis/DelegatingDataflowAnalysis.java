@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+/**
+ * A data-flow analysis which forwards all calls to another analysis.
+ * This is convenient for implementing {@link DataflowAnalysis#specialize(CFG)}:
+ * subclasses only override the functions that use the data of a CFG.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public abstract class DelegatingDataflowAnalysis<Node, Fact>
+        implements DataflowAnalysis<Node, Fact> {
+
+    protected final DataflowAnalysis<Node, Fact> delegate;
+
+    protected DelegatingDataflowAnalysis(DataflowAnalysis<Node, Fact> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean isForward() {
+        return delegate.isForward();
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<Node> cfg) {
+        return delegate.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public Fact newInitialFact() {
+        return delegate.newInitialFact();
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<Node> cfg) {
+        return delegate.newInitialFact(cfg);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        delegate.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean isMeetInPlace() {
+        return delegate.isMeetInPlace();
+    }
+
+    @Override
+    public boolean transferNode(Node node, Fact in, Fact out) {
+        return delegate.transferNode(node, in, out);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        return delegate.needTransferEdge(edge);
+    }
+
+    @Override
+    public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+        return delegate.transferEdge(edge, nodeFact);
+    }
+}
@@ -22,14 +22,17 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.defuse.DefUseIndex;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
-import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
-import java.util.Optional;
+import java.util.List;
 
 /**
  * Implementation of classic live variable analysis.
@@ -39,8 +42,31 @@ public class LiveVariableAnalysis extends
 
     public static final String ID = "livevar";
 
+    /**
+     * The options which decide how the live variables are computed.
+     */
+    public static final List<String> SOLVING_OPTIONS = List.of(
+            "strongly", "bit-vector", "simd", "block-level", "iteration");
+
+    /**
+     * Whether represent the facts as bit vectors over variable indexes.
+     */
+    private final boolean bitVector;
+
+    /**
+     * Whether operate on bit-vector facts by SIMD instructions.
+     */
+    private final boolean simd;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        bitVector = getOptions().getBooleanOrDefault("bit-vector", true);
+        simd = getOptions().getBooleanOrDefault("simd", false);
+    }
+
+    @Override
+    protected List<String> getSolvingOptions() {
+        return SOLVING_OPTIONS;
     }
 
     @Override
@@ -50,25 +76,61 @@ public class LiveVariableAnalysis extends
 
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
+    /**
+     * Bit-vector facts are indexed by the variables of a method, thus
+     * they are created by {@link #newInitialFact(CFG)}. Without the CFG,
+     * this returns a hash-based {@link SetFact}, which can be the operand
+     * of (and be compared with) bit-vector facts.
+     */
     @Override
     public SetFact<Var> newInitialFact() {
         return new SetFact<>();
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        if (bitVector) {
+            IR ir = cfg.getIR();
+            return new BitSetFact<>(ir::getVar, ir.getVars().size(), simd);
+        } else {
+            return newInitialFact();
+        }
+    }
+
+    @Override
+    protected FactCodec<SetFact<Var>> getFactCodec(CFG<Stmt> cfg) {
+        return FactCodec.ofSetFact(() -> newInitialFact(cfg), cfg.getIR()::getVar);
+    }
+
+    /**
+     * For bit-vector facts, returns a view of this analysis whose transfer
+     * function looks up the variables of statements in the {@link DefUseIndex}
+     * of the IR and updates the in facts in place.
+     */
+    @Override
+    public DataflowAnalysis<Stmt, SetFact<Var>> specialize(CFG<Stmt> cfg) {
+        if (bitVector) {
+            return new BitVectorLiveVariableAnalysis(this,
+                    DefUseIndex.of(cfg));
+        } else {
+            return this;
+        }
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
-        fact.stream().forEach(target::add);
+        target.union(fact);
     }
 
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        SetFact<Var> newIn = new SetFact<>();
+        // copy out fact, so that the new in fact has the same representation
+        SetFact<Var> newIn = out.copy();
 
         // Out[B]-def[B]
-        out.stream().forEach(newIn::add);
         stmt.getDef().ifPresent(v -> {
             if (v instanceof Var) {
                 newIn.remove((Var) v);
@@ -83,10 +145,29 @@ public class LiveVariableAnalysis extends
         });
 
         if (!newIn.equals(in)) {
-            in.clear();
-            newIn.stream().forEach(in::add);
+            in.set(newIn);
             return true;
         }
         return false;
     }
+
+    private static class BitVectorLiveVariableAnalysis
+            extends DelegatingDataflowAnalysis<Stmt, SetFact<Var>> {
+
+        private final DefUseIndex useDefs;
+
+        private BitVectorLiveVariableAnalysis(
+                LiveVariableAnalysis analysis, DefUseIndex useDefs) {
+            super(analysis);
+            this.useDefs = useDefs;
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
+            // IN[B] = use[B] U (OUT[B] - def[B])
+            int index = stmt.getIndex();
+            return ((BitSetFact<Var>) in).setKillGen((BitSetFact<Var>) out,
+                    useDefs.getDef(index), useDefs.getUses(index));
+        }
+    }
 }
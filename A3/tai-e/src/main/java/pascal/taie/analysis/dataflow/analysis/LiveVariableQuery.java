@@ -0,0 +1,112 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.defuse.DefUseIndex;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.BitSet;
+
+/**
+ * Answers liveness queries on demand, i.e., whether a variable is live
+ * before/after a statement, without solving {@link LiveVariableAnalysis}
+ * for all variables.
+ * <p>
+ * The first query of a variable searches the CFG backward from the uses
+ * of the variable, stopping at its definitions, and the statements reached
+ * are the ones where the variable is live-in. The result is memoized per
+ * variable, so the cost is proportional to the number of distinct
+ * variables queried. This class is not thread-safe.
+ */
+public class LiveVariableQuery {
+
+    private final CFG<Stmt> cfg;
+
+    private final DefUseIndex index;
+
+    private final Stmt[] nodes;
+
+    /**
+     * The statements where each variable is live-in, computed on demand.
+     */
+    private final BitSet[] liveIns;
+
+    public LiveVariableQuery(CFG<Stmt> cfg) {
+        this.cfg = cfg;
+        index = DefUseIndex.of(cfg);
+        nodes = new Stmt[cfg.getNumberOfNodes()];
+        cfg.forEach(node -> nodes[node.getIndex()] = node);
+        liveIns = new BitSet[cfg.getIR().getVars().size()];
+    }
+
+    /**
+     * @return true if given variable is live before given statement,
+     * otherwise false.
+     */
+    public boolean isLiveIn(Stmt stmt, Var var) {
+        return getLiveIns(var.getIndex()).get(stmt.getIndex());
+    }
+
+    /**
+     * @return true if given variable is live after given statement,
+     * otherwise false.
+     */
+    public boolean isLiveOut(Stmt stmt, Var var) {
+        BitSet liveIn = getLiveIns(var.getIndex());
+        for (Stmt succ : cfg.getSuccsOf(stmt)) {
+            if (liveIn.get(succ.getIndex())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BitSet getLiveIns(int var) {
+        BitSet liveIn = liveIns[var];
+        if (liveIn == null) {
+            liveIn = new BitSet(nodes.length);
+            int[] stack = new int[nodes.length];
+            int top = 0;
+            for (int use : index.getUseSites(var)) {
+                liveIn.set(use);
+                stack[top++] = use;
+            }
+            while (top > 0) {
+                Stmt node = nodes[stack[--top]];
+                for (Stmt pred : cfg.getPredsOf(node)) {
+                    int p = pred.getIndex();
+                    // a definition kills the variable, and definitions
+                    // which also use it are already marked as uses
+                    if (!liveIn.get(p) && index.getDef(p) != var) {
+                        liveIn.set(p);
+                        stack[top++] = p;
+                    }
+                }
+            }
+            liveIns[var] = liveIn;
+        }
+        return liveIn;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Combines multiple forward data-flow analyses into one analysis on the
+ * product lattice, so that they are solved by a single traversal of the
+ * CFG with one work-list, instead of one traversal per analysis.
+ * The facts of the product are tuples of the facts of the components,
+ * and all operations are performed component-wise.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class ProductDataflowAnalysis<Node>
+        implements DataflowAnalysis<Node, ProductDataflowAnalysis.ProductFact> {
+
+    private final List<DataflowAnalysis<Node, Object>> analyses;
+
+    private final boolean meetInPlace;
+
+    /**
+     * @param analyses the forward analyses to be combined
+     * @throws IllegalArgumentException if any analysis is backward
+     */
+    @SuppressWarnings("unchecked")
+    public ProductDataflowAnalysis(List<? extends DataflowAnalysis<Node, ?>> analyses) {
+        List<DataflowAnalysis<Node, Object>> list = new ArrayList<>(analyses.size());
+        for (DataflowAnalysis<Node, ?> analysis : analyses) {
+            if (!analysis.isForward()) {
+                throw new IllegalArgumentException(
+                        "Backward analysis cannot be combined: " + analysis);
+            }
+            list.add((DataflowAnalysis<Node, Object>) analysis);
+        }
+        this.analyses = List.copyOf(list);
+        meetInPlace = list.stream().allMatch(DataflowAnalysis::isMeetInPlace);
+    }
+
+    /**
+     * Solves the combined analyses on given CFG.
+     *
+     * @return the results of the analyses, in the order of the analyses
+     * given to the constructor.
+     */
+    public List<DataflowResult<Node, ?>> solve(CFG<Node> cfg) {
+        return split(cfg, Solver.makeSolver(this).solve(cfg));
+    }
+
+    /**
+     * Splits the result of this analysis into the results of the components.
+     *
+     * @return the results of the analyses, in the order of the analyses
+     * given to the constructor.
+     */
+    public List<DataflowResult<Node, ?>> split(
+            CFG<Node> cfg, DataflowResult<Node, ProductFact> result) {
+        boolean indexed = IndexedDataflowResult.isApplicable(cfg);
+        List<DataflowResult<Node, Object>> results = new ArrayList<>(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            results.add(indexed ?
+                    new IndexedDataflowResult<>(cfg.getNumberOfNodes()) :
+                    new DataflowResult<>());
+        }
+        for (Node node : cfg) {
+            Object[] in = result.getInFact(node).facts;
+            Object[] out = result.getOutFact(node).facts;
+            for (int i = 0; i < in.length; ++i) {
+                results.get(i).setInFact(node, in[i]);
+                results.get(i).setOutFact(node, out[i]);
+            }
+        }
+        return List.copyOf(results);
+    }
+
+    @Override
+    public boolean isForward() {
+        return true;
+    }
+
+    @Override
+    public ProductFact newBoundaryFact(CFG<Node> cfg) {
+        Object[] facts = new Object[analyses.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = analyses.get(i).newBoundaryFact(cfg);
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public ProductFact newInitialFact() {
+        Object[] facts = new Object[analyses.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = analyses.get(i).newInitialFact();
+        }
+        return new ProductFact(facts);
+    }
+
+    @Override
+    public ProductFact newInitialFact(CFG<Node> cfg) {
+        Object[] facts = new Object[analyses.size()];
+        for (int i = 0; i < facts.length; ++i) {
+            facts[i] = analyses.get(i).newInitialFact(cfg);
+        }
+        return new ProductFact(facts);
+    }
+
+    /**
+     * @return the product of the specialized components, or this analysis
+     * if no component is specialized for given CFG.
+     */
+    @Override
+    public DataflowAnalysis<Node, ProductFact> specialize(CFG<Node> cfg) {
+        List<DataflowAnalysis<Node, Object>> specialized = new ArrayList<>(analyses.size());
+        boolean changed = false;
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            DataflowAnalysis<Node, Object> s = analysis.specialize(cfg);
+            specialized.add(s);
+            changed |= s != analysis;
+        }
+        return changed ? new ProductDataflowAnalysis<>(specialized) : this;
+    }
+
+    @Override
+    public void meetInto(ProductFact fact, ProductFact target) {
+        for (int i = 0; i < fact.facts.length; ++i) {
+            analyses.get(i).meetInto(fact.facts[i], target.facts[i]);
+        }
+    }
+
+    /**
+     * @return true if all components can meet in place.
+     */
+    @Override
+    public boolean isMeetInPlace() {
+        return meetInPlace;
+    }
+
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out) {
+        boolean changed = false;
+        for (int i = 0; i < in.facts.length; ++i) {
+            changed |= analyses.get(i).transferNode(node, in.facts[i], out.facts[i]);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            if (analysis.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transfers the components which need edge transfer. Other components
+     * of the resulting fact are the ones of given node fact.
+     */
+    @Override
+    public ProductFact transferEdge(Edge<Node> edge, ProductFact nodeFact) {
+        Object[] facts = nodeFact.facts.clone();
+        for (int i = 0; i < facts.length; ++i) {
+            DataflowAnalysis<Node, Object> analysis = analyses.get(i);
+            if (analysis.needTransferEdge(edge)) {
+                facts[i] = analysis.transferEdge(edge, facts[i]);
+            }
+        }
+        return new ProductFact(facts);
+    }
+
+    /**
+     * Data-flow fact of the product lattice, i.e., a tuple of the facts
+     * of the component analyses.
+     */
+    public static class ProductFact {
+
+        private final Object[] facts;
+
+        private ProductFact(Object[] facts) {
+            this.facts = facts;
+        }
+
+        /**
+         * @return the fact of the i-th component analysis.
+         */
+        @SuppressWarnings("unchecked")
+        public <Fact> Fact get(int i) {
+            return (Fact) facts[i];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ProductFact that)) {
+                return false;
+            }
+            return Arrays.equals(facts, that.facts);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(facts);
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(facts);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.BitwiseExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.ShiftExp;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact.CONSTANT;
+import static pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact.NAC;
+import static pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact.UNDEF;
+
+/**
+ * Integer binary operators evaluated by constant propagation.
+ */
+enum BinaryOperator {
+
+    ADD, SUB, MUL, DIV, REM,
+    EQ, NE, LT, GT, LE, GE,
+    SHL, SHR, USHR,
+    OR, AND, XOR;
+
+    /**
+     * @return the operator corresponding to given IR operator,
+     * or null if the IR operator is not evaluated on int values,
+     * e.g., comparison of long values.
+     */
+    static BinaryOperator of(BinaryExp.Op op) {
+        if (op instanceof ArithmeticExp.Op arithmetic) {
+            return switch (arithmetic) {
+                case ADD -> ADD;
+                case SUB -> SUB;
+                case MUL -> MUL;
+                case DIV -> DIV;
+                case REM -> REM;
+            };
+        } else if (op instanceof ConditionExp.Op condition) {
+            return switch (condition) {
+                case EQ -> EQ;
+                case NE -> NE;
+                case LT -> LT;
+                case GT -> GT;
+                case LE -> LE;
+                case GE -> GE;
+            };
+        } else if (op instanceof ShiftExp.Op shift) {
+            return switch (shift) {
+                case SHL -> SHL;
+                case SHR -> SHR;
+                case USHR -> USHR;
+            };
+        } else if (op instanceof BitwiseExp.Op bitwise) {
+            return switch (bitwise) {
+                case OR -> OR;
+                case AND -> AND;
+                case XOR -> XOR;
+            };
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Applies this operator to given operands. Conditions result in
+     * 1 (true) or 0 (false). This is only called on the operands for which
+     * {@link #applyKind} results in {@code CONSTANT}, thus y is not 0
+     * for division and remainder.
+     */
+    int apply(int x, int y) {
+        return switch (this) {
+            case ADD -> x + y;
+            case SUB -> x - y;
+            case MUL -> x * y;
+            case DIV -> x / y;
+            case REM -> x % y;
+            case EQ -> x == y ? 1 : 0;
+            case NE -> x != y ? 1 : 0;
+            case LT -> x < y ? 1 : 0;
+            case GT -> x > y ? 1 : 0;
+            case LE -> x <= y ? 1 : 0;
+            case GE -> x >= y ? 1 : 0;
+            case SHL -> x << y;
+            case SHR -> x >> y;
+            case USHR -> x >>> y;
+            case OR -> x | y;
+            case AND -> x & y;
+            case XOR -> x ^ y;
+        };
+    }
+
+    /**
+     * Evaluates a binary expression on the values of its operands.
+     *
+     * @param op the operator of the expression, or null if it is
+     *           not evaluated on int values (see {@link #of})
+     * @return the resulting {@link Value}
+     */
+    static Value apply(BinaryOperator op, Value v1, Value v2) {
+        byte kind2 = DenseCPFact.kindOf(v2);
+        int y = kind2 == CONSTANT ? v2.getConstant() : 0;
+        return switch (applyKind(op, DenseCPFact.kindOf(v1), kind2, y)) {
+            case CONSTANT -> Value.makeConstant(
+                    op.apply(v1.getConstant(), v2.getConstant()));
+            case NAC -> Value.getNAC();
+            default -> Value.getUndef();
+        };
+    }
+
+    /**
+     * Evaluates the kind of the value of a binary expression on the kinds
+     * of the values of its operands, see {@link DenseCPFact}. If the result
+     * is {@code CONSTANT}, it is the result of {@link #apply(int, int)}.
+     *
+     * Division and remainder by constant 0 result in {@code UNDEF},
+     * as they throw ArithmeticException instead of defining a value.
+     *
+     * @param op the operator of the expression, or null if it is
+     *           not evaluated on int values (see {@link #of})
+     * @param y  the payload of the second operand if kind2 is
+     *           {@code CONSTANT}, otherwise ignored
+     */
+    static byte applyKind(BinaryOperator op, byte kind1, byte kind2, int y) {
+        if ((op == DIV || op == REM) && kind2 == CONSTANT && y == 0) {
+            return UNDEF;
+        } else if (kind1 == NAC || kind2 == NAC) {
+            return NAC;
+        } else if (kind1 == UNDEF || kind2 == UNDEF) {
+            // operands may be still UNDEF before the solver reaches
+            // the fixed point; keep the result UNDEF to be monotone
+            return UNDEF;
+        } else {
+            return op == null ? NAC : CONSTANT;
+        }
+    }
+}
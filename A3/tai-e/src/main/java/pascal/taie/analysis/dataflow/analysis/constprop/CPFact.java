@@ -23,6 +23,7 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.analysis.dataflow.fact.PersistentMap;
 import pascal.taie.ir.exp.Var;
 
 import java.util.Collections;
@@ -48,6 +49,18 @@ public class CPFact extends MapFact<Var, Value> {
         super(map);
     }
 
+    protected CPFact(PersistentMap<Var, Value> map) {
+        super(map);
+    }
+
+    /**
+     * @param backed whether allocate the map, which is false for
+     *               the subclasses that represent the values by themselves
+     */
+    protected CPFact(boolean backed) {
+        super(backed);
+    }
+
     /**
      * @return the value of given variable in this fact,
      * or UNDEF the variable is absent in this fact.
@@ -69,6 +82,26 @@ public class CPFact extends MapFact<Var, Value> {
         }
     }
 
+    /**
+     * Copies given fact into this fact like {@link #copyFrom},
+     * except that given variable takes given value instead, i.e.,
+     * the transfer of a definition without copying given fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean copyFromWith(CPFact fact, Var key, Value value) {
+        boolean changed = false;
+        for (Var var : fact.keySet()) {
+            if (!var.equals(key)) {
+                changed |= update(var, fact.get(var));
+            }
+        }
+        if (!value.isUndef()) {
+            changed |= update(key, value);
+        }
+        return changed;
+    }
+
     @Override
     public CPFact copy() {
         return new CPFact(this.map);
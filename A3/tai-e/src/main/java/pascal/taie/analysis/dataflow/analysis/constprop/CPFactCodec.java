@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.FactCodec;
+import pascal.taie.ir.exp.Var;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Encodes {@link CPFact}s as the indexes of the variables and their values.
+ */
+class CPFactCodec implements FactCodec<CPFact> {
+
+    private static final byte UNDEF = 0;
+
+    private static final byte CONSTANT = 1;
+
+    private static final byte NAC = 2;
+
+    private final Supplier<CPFact> factory;
+
+    private final IntFunction<Var> indexer;
+
+    /**
+     * @param factory creates empty facts, which determines the
+     *                representation of the decoded facts
+     * @param indexer maps indexes back to the corresponding variables
+     */
+    CPFactCodec(Supplier<CPFact> factory, IntFunction<Var> indexer) {
+        this.factory = factory;
+        this.indexer = indexer;
+    }
+
+    @Override
+    public void encode(CPFact fact, DataOutput out) throws IOException {
+        if (fact == null) {
+            out.writeInt(-1);
+            return;
+        }
+        List<Map.Entry<Var, Value>> entries = fact.entries().toList();
+        out.writeInt(entries.size());
+        for (Map.Entry<Var, Value> entry : entries) {
+            out.writeInt(entry.getKey().getIndex());
+            Value value = entry.getValue();
+            if (value.isConstant()) {
+                out.writeByte(CONSTANT);
+                out.writeInt(value.getConstant());
+            } else {
+                out.writeByte(value.isNAC() ? NAC : UNDEF);
+            }
+        }
+    }
+
+    @Override
+    public CPFact decode(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        CPFact fact = factory.get();
+        for (int i = 0; i < size; ++i) {
+            Var var = indexer.apply(in.readInt());
+            Value value = switch (in.readByte()) {
+                case CONSTANT -> Value.makeConstant(in.readInt());
+                case NAC -> Value.getNAC();
+                default -> Value.getUndef();
+            };
+            fact.update(var, value);
+        }
+        return fact;
+    }
+}
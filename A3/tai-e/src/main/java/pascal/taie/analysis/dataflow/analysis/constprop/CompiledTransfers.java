@@ -0,0 +1,251 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Stmt;
+
+import static pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact.CONSTANT;
+import static pascal.taie.analysis.dataflow.analysis.constprop.DenseCPFact.NAC;
+
+/**
+ * Transfer functions of constant propagation compiled from the statements
+ * of an IR. Each statement is decoded once into an opcode, the index of
+ * the variable it defines, and its operands (variable indexes or literal),
+ * so that the transfers do not dispatch on statement and expression
+ * objects in every iteration. For {@link DenseCPFact}s, the transfers work
+ * on the kinds and payloads of variables directly without allocating
+ * {@link Value}s.
+ * <p>
+ * Statements and variables are decoded when they are transferred the first
+ * time, so that compiling the transfers for an edited IR, whose result is
+ * repaired from only the edited statements, does not decode the whole IR.
+ */
+final class CompiledTransfers {
+
+    /**
+     * The statement has not been decoded.
+     */
+    private static final byte UNKNOWN = 0;
+
+    /**
+     * The statement does not update any variable.
+     */
+    private static final byte NONE = 1;
+
+    /**
+     * x = literal, operand1 is the literal.
+     */
+    private static final byte LITERAL = 2;
+
+    /**
+     * x = y, operand1 is the index of y.
+     */
+    private static final byte COPY = 3;
+
+    /**
+     * x = y op z, operand1 and operand2 are the indexes of y and z.
+     */
+    private static final byte BINARY = 4;
+
+    /**
+     * x = ..., which is not modeled and x can hold int values,
+     * thus x is NAC.
+     */
+    private static final byte UNMODELED = 5;
+
+    /**
+     * The variable can hold int values.
+     */
+    private static final byte TRACKED = 1;
+
+    /**
+     * The variable cannot hold int values.
+     */
+    private static final byte UNTRACKED = 2;
+
+    private final IR ir;
+
+    private final byte[] opcodes;
+
+    private final int[] defs;
+
+    private final int[] operands1;
+
+    private final int[] operands2;
+
+    /**
+     * Operators of binary statements, or null if not evaluated on int values.
+     */
+    private final BinaryOperator[] operators;
+
+    /**
+     * Whether each variable can hold int values, i.e., tracked by
+     * {@link DenseCPFact}, or {@link #UNKNOWN} if not decoded.
+     */
+    private final byte[] tracked;
+
+    private CompiledTransfers(IR ir) {
+        int size = ir.getStmts().size();
+        this.ir = ir;
+        opcodes = new byte[size];
+        defs = new int[size];
+        operands1 = new int[size];
+        operands2 = new int[size];
+        operators = new BinaryOperator[size];
+        tracked = new byte[ir.getVars().size()];
+    }
+
+    /**
+     * @return the opcode of the statement of given index,
+     * decoding the statement if it is not decoded yet.
+     */
+    private byte getOpcode(int index) {
+        if (index >= opcodes.length) {
+            return NONE;
+        }
+        if (opcodes[index] == UNKNOWN) {
+            Stmt stmt = ir.getStmt(index);
+            if (stmt instanceof AssignLiteral a
+                    && a.getRValue() instanceof IntLiteral literal) {
+                // other literals, e.g., long, String and null literals,
+                // are decoded as the statements which are not modeled
+                defs[index] = a.getLValue().getIndex();
+                operands1[index] = literal.getValue();
+                opcodes[index] = LITERAL;
+            } else if (stmt instanceof Copy c) {
+                defs[index] = c.getLValue().getIndex();
+                operands1[index] = c.getRValue().getIndex();
+                opcodes[index] = COPY;
+            } else if (stmt instanceof Binary b) {
+                defs[index] = b.getLValue().getIndex();
+                operands1[index] = b.getRValue().getOperand1().getIndex();
+                operands2[index] = b.getRValue().getOperand2().getIndex();
+                operators[index] = BinaryOperator.of(b.getRValue().getOperator());
+                opcodes[index] = BINARY;
+            } else if (stmt instanceof DefinitionStmt<?, ?> d
+                    && d.getLValue() instanceof Var var
+                    && ConstantPropagation.canHoldInt(var)) {
+                defs[index] = var.getIndex();
+                opcodes[index] = UNMODELED;
+            } else {
+                defs[index] = -1;
+                opcodes[index] = NONE;
+            }
+        }
+        return opcodes[index];
+    }
+
+    private boolean isTracked(int var) {
+        if (tracked[var] == UNKNOWN) {
+            tracked[var] = ConstantPropagation.canHoldInt(ir.getVar(var)) ?
+                    TRACKED : UNTRACKED;
+        }
+        return tracked[var] == TRACKED;
+    }
+
+    static CompiledTransfers compile(IR ir) {
+        return new CompiledTransfers(ir);
+    }
+
+    /**
+     * Transfers the in fact of the statement of given index to its out fact,
+     * which is equivalent to {@link ConstantPropagation#transferNode}.
+     *
+     * @return true if the out fact changed, otherwise false.
+     */
+    boolean transfer(int index, CPFact in, CPFact out) {
+        byte opcode = getOpcode(index);
+        if (in instanceof DenseCPFact denseIn && out instanceof DenseCPFact denseOut) {
+            return transferDense(index, opcode, denseIn, denseOut);
+        }
+        if (opcode == NONE) {
+            return out.copyFrom(in);
+        }
+        return out.copyFromWith(in, ir.getVar(defs[index]),
+                evaluate(index, opcode, in));
+    }
+
+    private Value evaluate(int index, byte opcode, CPFact in) {
+        switch (opcode) {
+            case LITERAL:
+                return Value.makeConstant(operands1[index]);
+            case COPY:
+                return in.get(ir.getVar(operands1[index]));
+            case UNMODELED:
+                return Value.getNAC();
+            default:
+                return BinaryOperator.apply(operators[index],
+                        getValue(in, operands1[index]),
+                        getValue(in, operands2[index]));
+        }
+    }
+
+    private Value getValue(CPFact fact, int var) {
+        return isTracked(var) ? fact.get(ir.getVar(var)) : Value.getNAC();
+    }
+
+    private boolean transferDense(int index, byte opcode,
+                                  DenseCPFact in, DenseCPFact out) {
+        if (opcode == NONE || !isTracked(defs[index])) {
+            return out.copyFrom(in);
+        }
+        byte kind;
+        int payload = 0;
+        switch (opcode) {
+            case LITERAL -> {
+                kind = CONSTANT;
+                payload = operands1[index];
+            }
+            case COPY -> {
+                int var = operands1[index];
+                kind = getKind(in, var);
+                if (kind == CONSTANT) {
+                    payload = in.getPayload(var);
+                }
+            }
+            case UNMODELED -> kind = NAC;
+            default -> {
+                int var1 = operands1[index], var2 = operands2[index];
+                byte kind1 = getKind(in, var1), kind2 = getKind(in, var2);
+                BinaryOperator op = operators[index];
+                int y = kind2 == CONSTANT ? in.getPayload(var2) : 0;
+                kind = BinaryOperator.applyKind(op, kind1, kind2, y);
+                if (kind == CONSTANT) {
+                    payload = op.apply(in.getPayload(var1), y);
+                }
+            }
+        }
+        return out.copyFromWith(in, defs[index], kind, payload);
+    }
+
+    private byte getKind(DenseCPFact fact, int var) {
+        return isTracked(var) ? fact.getKind(var) : NAC;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.SwitchStmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Conditional constant propagation, which fuses constant propagation
+ * and reachability in the style of Wegman and Zadeck's SCCP.
+ * <p>
+ * Different from solving {@link ConstantPropagation} and then finding
+ * unreachable branches, facts are only propagated along the CFG edges that
+ * have been proven executable, and an out edge of an {@link If} or
+ * {@link SwitchStmt} becomes executable only if the condition value
+ * admits it. Thus, constants flowing out of infeasible branches do not
+ * pollute the facts of the merge points, and the result is at least
+ * as precise as the two separate passes.
+ * <p>
+ * As the IR is not in SSA form, the propagation is dense, i.e., it works
+ * on the facts of statements over the executable edges of the CFG.
+ */
+public class ConditionalConstantPropagation {
+
+    private final DataflowAnalysis<Stmt, CPFact> constprop;
+
+    /**
+     * @param constprop the constant propagation which provides
+     *                  the facts, meet and transfer functions.
+     */
+    public ConditionalConstantPropagation(DataflowAnalysis<Stmt, CPFact> constprop) {
+        assert constprop.isForward();
+        this.constprop = constprop;
+    }
+
+    public Result solve(CFG<Stmt> cfg) {
+        DataflowAnalysis<Stmt, CPFact> analysis = constprop.specialize(cfg);
+        int size = cfg.getNumberOfNodes();
+        Stmt[] nodes = new Stmt[size];
+        Result result = new Result(size);
+        for (Stmt node : cfg) {
+            nodes[node.getIndex()] = node;
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
+        }
+        Stmt entry = cfg.getEntry();
+        CPFact boundary = analysis.newBoundaryFact(cfg);
+        result.setInFact(entry, boundary);
+        result.setOutFact(entry, boundary);
+        result.reachable.set(entry.getIndex());
+        // statements are roughly in topological order of their indexes,
+        // thus the work-list always takes the one with the smallest index
+        BitSet workList = new BitSet(size);
+        for (Edge<Stmt> edge : cfg.getOutEdgesOf(entry)) {
+            markExecutable(edge, result, workList);
+        }
+        for (int i = workList.nextSetBit(0); i >= 0;
+             i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Stmt node = nodes[i];
+            result.reachable.set(i);
+            CPFact in = result.getInFact(node);
+            if (!analysis.isMeetInPlace()) {
+                in = analysis.newInitialFact(cfg);
+                result.setInFact(node, in);
+            }
+            for (Edge<Stmt> inEdge : cfg.getInEdgesOf(node)) {
+                if (result.isExecutable(inEdge)) {
+                    CPFact predOut = result.getOutFact(inEdge.getSource());
+                    if (analysis.needTransferEdge(inEdge)) {
+                        predOut = analysis.transferEdge(inEdge, predOut);
+                    }
+                    analysis.meetInto(predOut, in);
+                }
+            }
+            boolean changed = analysis.transferNode(node, in, result.getOutFact(node));
+            for (Edge<Stmt> outEdge : cfg.getOutEdgesOf(node)) {
+                if (isFeasible(outEdge, in)
+                        && (markExecutable(outEdge, result, workList) || changed)) {
+                    workList.set(outEdge.getTarget().getIndex());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks given edge executable, and adds its target to the work-list
+     * if the edge is newly executable.
+     *
+     * @return true if the edge is newly executable, otherwise false.
+     */
+    private static boolean markExecutable(
+            Edge<Stmt> edge, Result result, BitSet workList) {
+        if (result.executable.add(edge)) {
+            workList.set(edge.getTarget().getIndex());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the condition value of the source of given edge
+     * (evaluated on the IN fact of the source) admits the edge.
+     * The branches of a condition which is still UNDEF are not feasible yet.
+     */
+    private static boolean isFeasible(Edge<Stmt> edge, CPFact in) {
+        Stmt source = edge.getSource();
+        if (source instanceof If ifStmt) {
+            Value cond = ConstantPropagation.evaluate(ifStmt.getCondition(), in);
+            return switch (edge.getKind()) {
+                case IF_TRUE -> cond.isNAC() ||
+                        cond.isConstant() && cond.getConstant() != 0;
+                case IF_FALSE -> cond.isNAC() ||
+                        cond.isConstant() && cond.getConstant() == 0;
+                default -> true;
+            };
+        } else if (source instanceof SwitchStmt switchStmt) {
+            Value var = ConstantPropagation.evaluate(switchStmt.getVar(), in);
+            if (var.isNAC()) {
+                return true;
+            } else if (var.isUndef()) {
+                return false;
+            }
+            int value = var.getConstant();
+            return switch (edge.getKind()) {
+                case SWITCH_CASE -> edge.getCaseValue() == value;
+                case SWITCH_DEFAULT ->
+                        !switchStmt.getCaseValues().contains(value);
+                default -> true;
+            };
+        } else {
+            return true;
+        }
+    }
+
+    /**
+     * Result of conditional constant propagation. Besides the constants
+     * at each statement, it tells which statements are reachable and which
+     * edges are executable. The facts of unreachable statements are
+     * the initial facts, i.e., all variables are UNDEF.
+     */
+    public static class Result extends IndexedDataflowResult<Stmt, CPFact> {
+
+        private final BitSet reachable;
+
+        private final Set<Edge<Stmt>> executable = Sets.newHybridSet();
+
+        private Result(int capacity) {
+            super(capacity);
+            reachable = new BitSet(capacity);
+        }
+
+        /**
+         * @return true if given statement is reachable from the entry
+         * through executable edges, otherwise false.
+         */
+        public boolean isReachable(Stmt stmt) {
+            return reachable.get(stmt.getIndex());
+        }
+
+        /**
+         * @return true if given edge is proven executable, otherwise false.
+         */
+        public boolean isExecutable(Edge<Stmt> edge) {
+            return executable.contains(edge);
+        }
+    }
+}
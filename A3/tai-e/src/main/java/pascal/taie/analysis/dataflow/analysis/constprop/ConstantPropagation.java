@@ -23,8 +23,15 @@
 package pascal.taie.analysis.dataflow.analysis.constprop;
 
 import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DelegatingDataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactCodec;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.ArithmeticExp;
 import pascal.taie.ir.exp.BinaryExp;
@@ -39,13 +46,101 @@ import pascal.taie.language.type.PrimitiveType;
 import pascal.taie.language.type.Type;
 import pascal.taie.util.AnalysisException;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
 public class ConstantPropagation extends
         AbstractDataflowAnalysis<Stmt, CPFact> {
 
     public static final String ID = "constprop";
 
+    /**
+     * The options which decide how the constants are computed. The other
+     * options, e.g., cache, spill and metrics, only decide how the results
+     * are kept and reported.
+     */
+    public static final List<String> SOLVING_OPTIONS = List.of(
+            "edge-refine", "dense", "persistent", "compiled", "sparse",
+            "block-level", "iteration");
+
+    /**
+     * Whether represent the facts densely, see {@link DenseCPFact}.
+     */
+    private final boolean dense;
+
+    /**
+     * Whether represent the facts by persistent maps when they are
+     * not dense, see {@link PersistentCPFact}.
+     */
+    private final boolean persistent;
+
+    /**
+     * If not null, constants are propagated sparsely along def-use chains,
+     * see {@link SparseConstantPropagation}.
+     */
+    private final SparseConstantPropagation sparse;
+
+    /**
+     * Whether compile the statements into {@link CompiledTransfers}
+     * before solving.
+     */
+    private final boolean compiled;
+
     public ConstantPropagation(AnalysisConfig config) {
-        super(config);
+        super(checkSparse(config));
+        dense = getOptions().getBooleanOrDefault("dense", true);
+        persistent = getOptions().getBooleanOrDefault("persistent", false);
+        sparse = getOptions().getBooleanOrDefault("sparse", false) ?
+                new SparseConstantPropagation(this) : null;
+        compiled = getOptions().getBooleanOrDefault("compiled", true);
+    }
+
+    /**
+     * Sparse constant propagation neither runs a solver nor keeps
+     * the facts of statements, thus it rejects the options of solving
+     * and keeping the facts, instead of ignoring them.
+     *
+     * @return given config.
+     * @throws ConfigException if option {@code sparse} is enabled
+     *                         together with such options
+     */
+    private static AnalysisConfig checkSparse(AnalysisConfig config) {
+        AnalysisOptions options = config.getOptions();
+        if (options.getBooleanOrDefault("sparse", false)) {
+            for (String option : List.of("block-level", "iteration",
+                    "intern", "spill", "metrics", "cache")) {
+                Object value = options.get(option);
+                if (value != null && !value.equals(false)) {
+                    throw new ConfigException("Option " + option + " of " + ID +
+                            " is incompatible with option sparse");
+                }
+            }
+        }
+        return config;
+    }
+
+    @Override
+    public DataflowResult<Stmt, CPFact> analyze(IR ir) {
+        if (sparse != null) {
+            return sparse.solve(ir.getResult(CFGBuilder.ID));
+        }
+        return super.analyze(ir);
+    }
+
+    /**
+     * @throws ConfigException if option {@code sparse} is true, as sparse
+     *                         results are answered from the def-use chains
+     *                         of the IR instead of stored facts
+     */
+    @Override
+    public DataflowResult<Stmt, CPFact> resolve(
+            IR ir, DataflowResult<Stmt, CPFact> result, Collection<Stmt> changed) {
+        if (sparse != null) {
+            throw new ConfigException("Results of " + ID +
+                    " with option sparse cannot be repaired");
+        }
+        return super.resolve(ir, result, changed);
     }
 
     @Override
@@ -56,7 +151,7 @@ public class ConstantPropagation extends
     @Override
     public CPFact newBoundaryFact(CFG<Stmt> cfg) {
         IR ir = cfg.getIR();
-        CPFact fact = new CPFact();
+        CPFact fact = newInitialFact(cfg);
         ir.getParams().forEach(k -> fact.update(k, Value.getNAC()));
         return fact;
     }
@@ -66,9 +161,54 @@ public class ConstantPropagation extends
         return new CPFact();
     }
 
+    @Override
+    public CPFact newInitialFact(CFG<Stmt> cfg) {
+        if (dense) {
+            IR ir = cfg.getIR();
+            return new DenseCPFact(ir::getVar, ir.getVars().size());
+        } else if (persistent) {
+            return new PersistentCPFact();
+        } else {
+            return newInitialFact();
+        }
+    }
+
+    @Override
+    protected List<String> getSolvingOptions() {
+        return SOLVING_OPTIONS;
+    }
+
+    @Override
+    protected FactCodec<CPFact> getFactCodec(CFG<Stmt> cfg) {
+        return new CPFactCodec(() -> newInitialFact(cfg), cfg.getIR()::getVar);
+    }
+
+    /**
+     * If compiled transfers are enabled, returns a view of this analysis
+     * whose transfer function runs the {@link CompiledTransfers} of the IR.
+     */
+    @Override
+    public DataflowAnalysis<Stmt, CPFact> specialize(CFG<Stmt> cfg) {
+        if (compiled) {
+            return new CompiledConstantPropagation(this,
+                    CompiledTransfers.compile(cfg.getIR()));
+        } else {
+            return this;
+        }
+    }
+
     @Override
     public void meetInto(CPFact fact, CPFact target) {
         if (fact == null) return;
+        if (fact instanceof DenseCPFact d && target instanceof DenseCPFact t) {
+            t.meet(d);
+            return;
+        }
+        if (fact instanceof PersistentCPFact && target.isEmpty()) {
+            // meeting into an all-UNDEF fact shares the trie of fact
+            target.copyFrom(fact);
+            return;
+        }
         fact.forEach((k, v) -> {
             target.update(k, meetValue(target.get(k), v));
         });
@@ -89,30 +229,40 @@ public class ConstantPropagation extends
 
     @Override
     public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
-        boolean changed = false;
+        // OUT = IN except for the variable defined by stmt
+        Value value = evaluateDef(stmt, in::get);
+        if (value != null) {
+            return out.copyFromWith(in,
+                    (Var) ((DefinitionStmt<?, ?>) stmt).getLValue(), value);
+        }
+        return out.copyFrom(in);
+    }
 
-        if (stmt instanceof AssignLiteral a) {
-            IntLiteral r = (IntLiteral) a.getRValue();
-            Value rv = Value.makeConstant(r.getValue());
-            changed |= out.update(a.getLValue(), rv);
+    /**
+     * Evaluates the {@link Value} that given statement assigns to
+     * the variable it defines.
+     *
+     * @param stmt the statement to be evaluated
+     * @param in   values of variables before the statement
+     * @return the resulting {@link Value}, or null if the transfer
+     * function does not update any variable for the statement.
+     * The int variables defined by the statements which are not modeled,
+     * e.g., invocations, field loads, casts and non-int literals, are NAC.
+     */
+    static Value evaluateDef(Stmt stmt, Function<Var, Value> in) {
+        if (stmt instanceof AssignLiteral a
+                && a.getRValue() instanceof IntLiteral r) {
+            return Value.makeConstant(r.getValue());
         } else if (stmt instanceof Copy c) {
-            Var l = c.getLValue();
-            Var r = c.getRValue();
-            Value v = in.get(r);
-            changed |= out.update(l, v);
+            return in.apply(c.getRValue());
         } else if (stmt instanceof Binary b) {
-            BinaryExp r = b.getRValue();
-            Value rv = evaluate(r, in);
-            changed |= out.update(b.getLValue(), rv);
-        } else if (stmt instanceof If i) {
-        } else if (stmt instanceof Invoke n) {
-        } else if (stmt instanceof Return r) {
-        } else if (stmt instanceof Nop t) {
-        } else if (stmt instanceof Goto g) {
+            return evaluate(b.getRValue(), in);
+        } else if (stmt instanceof DefinitionStmt<?, ?> d
+                && d.getLValue() instanceof Var var && canHoldInt(var)) {
+            return Value.getNAC();
         } else {
-            System.err.println(stmt.getClass() + " " + stmt);
+            return null;
         }
-        return changed;
     }
 
     /**
@@ -141,107 +291,49 @@ public class ConstantPropagation extends
      * @return the resulting {@link Value}
      */
     public static Value evaluate(Exp exp, CPFact in) {
-        if (!(exp instanceof BinaryExp b)){
-            if (exp instanceof Var v)
-                return in.get(v);
-            assert false : "Unsupported expression: " + exp;
+        return evaluate(exp, in::get);
+    }
+
+    /**
+     * Evaluates the {@link Value} of given expression.
+     *
+     * @param exp the expression to be evaluated
+     * @param in  values of variables before the statement
+     * @return the resulting {@link Value}
+     */
+    public static Value evaluate(Exp exp, Function<Var, Value> in) {
+        if (exp instanceof Var v) {
+            return getValue(v, in);
         }
+        assert exp instanceof BinaryExp : "Unsupported expression: " + exp;
         BinaryExp b = (BinaryExp) exp;
-        Var op1 = b.getOperand1();
-        Var op2 = b.getOperand2();
-        Value v1 = in.get(op1);
-        Value v2 = in.get(op2);
-        assert !v1.isUndef() && !v2.isUndef() : "Undefined value in evaluate";
-        String op = b.getOperator().toString();
-//        运算类型	运算符
-//        Arithmetic	+ - * / %
-//        Condition	== != < > <= >=
-//        Shift	<< >> >>>
-//        Bitwise	| & ^
-        switch (op) {
-            case "+":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() + v2.getConstant());
-                }
-                break;
-            case "-":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() - v2.getConstant());
-                }
-                break;
-            case "*":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() * v2.getConstant());
-                }
-                break;
-            case "/":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() / v2.getConstant());
-                }
-                break;
-            case "%":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() % v2.getConstant());
-                }
-                break;
-            case "<<":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() << v2.getConstant());
-                }
-                break;
-            case "|":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() | v2.getConstant());
-                }
-                break;
-            case "&":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() & v2.getConstant());
-                }
-                break;
-            case "==":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() == v2.getConstant() ? 1 : 0);
-                }
-                break;
-            case "!=":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() != v2.getConstant() ? 1 : 0);
-                }
-                break;
-            case "<":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() < v2.getConstant() ? 1 : 0);
-                }
-                break;
-            case ">":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() > v2.getConstant() ? 1 : 0);
-                }
-                break;
-            case "<=":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() <= v2.getConstant() ? 1 : 0);
-                }
-                break;
-            case ">=":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() >= v2.getConstant() ? 1 : 0);
-                }
-                break;
-            case ">>":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() >> v2.getConstant());
-                }
-                break;
-            case ">>>":
-                if (v1.isConstant() && v2.isConstant()) {
-                    return Value.makeConstant(v1.getConstant() >>> v2.getConstant());
-                }
-                break;
-            default:
-                assert false : "Unsupported operator: " + op;
+        return BinaryOperator.apply(BinaryOperator.of(b.getOperator()),
+                getValue(b.getOperand1(), in), getValue(b.getOperand2(), in));
+    }
+
+    /**
+     * @return the value of given variable. The variables which cannot hold
+     * int values are NAC, as in {@link DenseCPFact}, also for the facts
+     * which do not track them, where they would be UNDEF.
+     */
+    private static Value getValue(Var var, Function<Var, Value> in) {
+        return canHoldInt(var) ? in.apply(var) : Value.getNAC();
+    }
+
+    private static class CompiledConstantPropagation
+            extends DelegatingDataflowAnalysis<Stmt, CPFact> {
+
+        private final CompiledTransfers transfers;
+
+        private CompiledConstantPropagation(
+                ConstantPropagation analysis, CompiledTransfers transfers) {
+            super(analysis);
+            this.transfers = transfers;
+        }
+
+        @Override
+        public boolean transferNode(Stmt stmt, CPFact in, CPFact out) {
+            return transfers.transfer(stmt.getIndex(), in, out);
         }
-        return Value.getNAC();
     }
 }
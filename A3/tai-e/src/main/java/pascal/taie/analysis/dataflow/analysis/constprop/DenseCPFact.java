@@ -0,0 +1,359 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.MapFact;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents data facts of constant propagation densely. The lattice value
+ * of each variable is encoded as a kind and an integer payload, stored in
+ * primitive arrays indexed by {@link Var#getIndex()}, so that meeting,
+ * copying and comparing facts do not allocate objects.
+ * <p>
+ * Variables that cannot hold integer values (see
+ * {@link ConstantPropagation#canHoldInt(Var)}) are not tracked:
+ * updating them has no effect, and their values are always NAC.
+ * This fact does not allocate the map of {@link CPFact}.
+ */
+public class DenseCPFact extends CPFact {
+
+    static final byte UNDEF = 0;
+
+    static final byte CONSTANT = 1;
+
+    static final byte NAC = 2;
+
+    /**
+     * Maps indexes back to the variables, which is used to iterate entries.
+     */
+    private final IntFunction<Var> indexer;
+
+    private byte[] kinds;
+
+    /**
+     * Integer constants of the variables whose kinds are {@link #CONSTANT}.
+     * For other variables, the payloads are always 0.
+     */
+    private int[] values;
+
+    /**
+     * Constructs an empty fact, i.e., all variables are UNDEF.
+     *
+     * @param indexer  maps indexes to the corresponding variables
+     * @param capacity the number of variables, i.e., all variables
+     *                 must have indexes less than capacity
+     */
+    public DenseCPFact(IntFunction<Var> indexer, int capacity) {
+        super(false);
+        this.indexer = indexer;
+        this.kinds = new byte[capacity];
+        this.values = new int[capacity];
+    }
+
+    private DenseCPFact(DenseCPFact fact) {
+        super(false);
+        this.indexer = fact.indexer;
+        this.kinds = fact.kinds.clone();
+        this.values = fact.values.clone();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (kinds.length < capacity) {
+            int newCapacity = Math.max(2 * kinds.length, capacity);
+            kinds = Arrays.copyOf(kinds, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    static byte kindOf(Value value) {
+        if (value.isConstant()) {
+            return CONSTANT;
+        } else if (value.isNAC()) {
+            return NAC;
+        } else {
+            return UNDEF;
+        }
+    }
+
+    private Value getValue(int index) {
+        return switch (kinds[index]) {
+            case CONSTANT -> Value.makeConstant(values[index]);
+            case NAC -> Value.getNAC();
+            default -> Value.getUndef();
+        };
+    }
+
+    @Override
+    public Value get(Var key) {
+        if (!ConstantPropagation.canHoldInt(key)) {
+            return Value.getNAC();
+        }
+        int index = key.getIndex();
+        return index < kinds.length ? getValue(index) : Value.getUndef();
+    }
+
+    @Override
+    public boolean update(Var key, Value value) {
+        if (!ConstantPropagation.canHoldInt(key)) {
+            return false;
+        }
+        byte kind = kindOf(value);
+        int payload = value.isConstant() ? value.getConstant() : 0;
+        int index = key.getIndex();
+        ensureCapacity(index + 1);
+        if (kinds[index] == kind && values[index] == payload) {
+            return false;
+        }
+        kinds[index] = kind;
+        values[index] = payload;
+        return true;
+    }
+
+    @Override
+    public Value remove(Var key) {
+        int index = key.getIndex();
+        if (!ConstantPropagation.canHoldInt(key) ||
+                index >= kinds.length || kinds[index] == UNDEF) {
+            return null;
+        }
+        Value oldValue = getValue(index);
+        kinds[index] = UNDEF;
+        values[index] = 0;
+        return oldValue;
+    }
+
+    /**
+     * Meets other fact into this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean meet(DenseCPFact other) {
+        ensureCapacity(other.kinds.length);
+        byte[] otherKinds = other.kinds;
+        int[] otherValues = other.values;
+        boolean changed = false;
+        for (int i = 0; i < otherKinds.length; ++i) {
+            byte otherKind = otherKinds[i];
+            byte kind = kinds[i];
+            if (otherKind == UNDEF || kind == NAC) {
+                continue;
+            }
+            if (kind == UNDEF) {
+                kinds[i] = otherKind;
+                values[i] = otherValues[i];
+                changed = true;
+            } else if (otherKind == NAC || values[i] != otherValues[i]) {
+                kinds[i] = NAC;
+                values[i] = 0;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean copyFrom(MapFact<Var, Value> fact) {
+        if (!(fact instanceof DenseCPFact other)) {
+            boolean changed = false;
+            for (Var var : fact.keySet()) {
+                changed |= update(var, fact.get(var));
+            }
+            return changed;
+        }
+        ensureCapacity(other.kinds.length);
+        byte[] otherKinds = other.kinds;
+        int[] otherValues = other.values;
+        boolean changed = false;
+        for (int i = 0; i < otherKinds.length; ++i) {
+            byte otherKind = otherKinds[i];
+            if (otherKind != UNDEF &&
+                    (kinds[i] != otherKind || values[i] != otherValues[i])) {
+                kinds[i] = otherKind;
+                values[i] = otherValues[i];
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @return the kind of the variable of given index.
+     */
+    byte getKind(int index) {
+        return index < kinds.length ? kinds[index] : UNDEF;
+    }
+
+    /**
+     * @return the payload of the variable of given index.
+     */
+    int getPayload(int index) {
+        return index < values.length ? values[index] : 0;
+    }
+
+    /**
+     * Copies other fact into this fact like {@link #copyFrom(MapFact)},
+     * except that the variable of given index takes given kind and
+     * payload instead, i.e., the transfer of a definition without
+     * copying other fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    boolean copyFromWith(DenseCPFact other, int index, byte kind, int payload) {
+        ensureCapacity(Math.max(other.kinds.length, index + 1));
+        byte[] otherKinds = other.kinds;
+        int[] otherValues = other.values;
+        boolean changed = false;
+        for (int i = 0; i < otherKinds.length; ++i) {
+            byte otherKind = otherKinds[i];
+            if (i != index && otherKind != UNDEF &&
+                    (kinds[i] != otherKind || values[i] != otherValues[i])) {
+                kinds[i] = otherKind;
+                values[i] = otherValues[i];
+                changed = true;
+            }
+        }
+        if (kind != UNDEF && (kinds[index] != kind || values[index] != payload)) {
+            kinds[index] = kind;
+            values[index] = payload;
+            changed = true;
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean copyFromWith(CPFact fact, Var key, Value value) {
+        if (fact instanceof DenseCPFact other) {
+            if (!ConstantPropagation.canHoldInt(key)) {
+                // key is not tracked, thus it is the same as copying
+                return copyFrom(other);
+            }
+            return copyFromWith(other, key.getIndex(), kindOf(value),
+                    value.isConstant() ? value.getConstant() : 0);
+        }
+        return super.copyFromWith(fact, key, value);
+    }
+
+    @Override
+    public DenseCPFact copy() {
+        return new DenseCPFact(this);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(kinds, UNDEF);
+        Arrays.fill(values, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (byte kind : kinds) {
+            if (kind != UNDEF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return indexes of the variables that are not UNDEF in this fact.
+     */
+    private IntStream indexes() {
+        return IntStream.range(0, kinds.length)
+                .filter(i -> kinds[i] != UNDEF);
+    }
+
+    @Override
+    public Set<Var> keySet() {
+        Set<Var> keys = Sets.newHybridSet();
+        indexes().forEach(i -> keys.add(indexer.apply(i)));
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public Stream<Map.Entry<Var, Value>> entries() {
+        return indexes().mapToObj(i -> Map.entry(indexer.apply(i), getValue(i)));
+    }
+
+    @Override
+    public void forEach(BiConsumer<Var, Value> action) {
+        for (int i = 0; i < kinds.length; ++i) {
+            if (kinds[i] != UNDEF) {
+                action.accept(indexer.apply(i), getValue(i));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DenseCPFact that)) {
+            return false;
+        }
+        int length = Math.max(kinds.length, that.kinds.length);
+        for (int i = 0; i < length; ++i) {
+            byte kind = i < kinds.length ? kinds[i] : UNDEF;
+            byte thatKind = i < that.kinds.length ? that.kinds[i] : UNDEF;
+            if (kind != thatKind ||
+                    (kind == CONSTANT && values[i] != that.values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        // UNDEF variables must not affect the hash code,
+        // so that equal facts of different capacities are consistent
+        int h = 0;
+        for (int i = 0; i < kinds.length; ++i) {
+            if (kinds[i] != UNDEF) {
+                h += (31 * i + kinds[i]) ^ values[i];
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "{" + entries()
+                .sorted(Comparator.comparing(e -> e.getKey().toString()))
+                .map(e -> e.getKey() + "=" + e.getValue())
+                .collect(Collectors.joining(", ")) + "}";
+    }
+}
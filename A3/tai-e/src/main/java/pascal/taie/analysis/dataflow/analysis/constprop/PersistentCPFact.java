@@ -0,0 +1,59 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.PersistentMap;
+import pascal.taie.ir.exp.Var;
+
+/**
+ * Represents data facts of constant propagation by {@link PersistentMap}.
+ * Copying such a fact is O(1), and the facts of different nodes share
+ * the mappings that are not changed between the nodes, which saves
+ * memory on long straight-line code.
+ */
+public class PersistentCPFact extends CPFact {
+
+    public PersistentCPFact() {
+        this(new PersistentMap<>());
+    }
+
+    private PersistentCPFact(PersistentMap<Var, Value> map) {
+        super(map);
+    }
+
+    @Override
+    public boolean copyFromWith(CPFact fact, Var key, Value value) {
+        if (fact instanceof PersistentCPFact other && isEmpty()) {
+            // share the trie of the other fact, and then redefine key
+            getPersistentMap().set(other.getPersistentMap());
+            update(key, value);
+            return !isEmpty();
+        }
+        return super.copyFromWith(fact, key, value);
+    }
+
+    @Override
+    public PersistentCPFact copy() {
+        return new PersistentCPFact(getPersistentMap().fork());
+    }
+}
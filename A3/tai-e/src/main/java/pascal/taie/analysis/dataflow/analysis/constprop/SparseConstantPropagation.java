@@ -0,0 +1,232 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.defuse.DefUseIndex;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Set;
+
+/**
+ * Sparse constant propagation, which propagates {@link Value}s along
+ * the def-use chains of {@link DefUseIndex} instead of the CFG.
+ * <p>
+ * Each definition of a variable plays the role of an SSA name and keeps
+ * exactly one lattice value, and the value of a use is the meet of the
+ * values of the definitions reaching it (i.e., the implicit phi-function).
+ * When the value of a definition changes, only the definitions which use
+ * it are re-evaluated. The values are the same as the ones computed by
+ * {@link ConstantPropagation} on dense {@link DenseCPFact}s, where
+ * variables which cannot hold int values are NAC, and so are the int
+ * variables defined by the statements which are not modeled, e.g.,
+ * invocations and unary expressions.
+ */
+public class SparseConstantPropagation {
+
+    private final ConstantPropagation constprop;
+
+    SparseConstantPropagation(ConstantPropagation constprop) {
+        this.constprop = constprop;
+    }
+
+    Result solve(CFG<Stmt> cfg) {
+        IR ir = cfg.getIR();
+        DefUseIndex index = DefUseIndex.of(cfg);
+        CPFact boundary = constprop.newBoundaryFact(cfg);
+        Value[] entryValues = new Value[ir.getVars().size()];
+        for (Var var : ir.getVars()) {
+            entryValues[var.getIndex()] = ConstantPropagation.canHoldInt(var) ?
+                    boundary.get(var) : Value.getNAC();
+        }
+        int stmtCount = ir.getStmts().size();
+        Value[] defValues = new Value[stmtCount];
+        BitSet workList = new BitSet(stmtCount);
+        for (int i = 0; i < stmtCount; ++i) {
+            if (index.getDef(i) != -1) {
+                defValues[i] = Value.getUndef();
+                workList.set(i);
+            }
+        }
+        Result result = new Result(cfg, index, entryValues, defValues);
+        for (int i = workList.nextSetBit(0); i >= 0;
+             i = workList.nextSetBit(0)) {
+            workList.clear(i);
+            Var var = ir.getVar(index.getDef(i));
+            Value value = null;
+            if (ConstantPropagation.canHoldInt(var)) {
+                int stmtIndex = i;
+                value = ConstantPropagation.evaluateDef(ir.getStmt(i),
+                        v -> result.getUseValue(stmtIndex, v.getIndex()));
+            }
+            if (value == null) {
+                // definitions not modeled by constant propagation
+                value = Value.getNAC();
+            }
+            if (!value.equals(defValues[i])) {
+                defValues[i] = value;
+                for (int use : index.getReachedUses(i, var.getIndex())) {
+                    if (index.getDef(use) != -1) {
+                        workList.set(use);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Result of sparse constant propagation, which is answered from
+     * the values of definitions without solving the facts of statements.
+     * The value of a variable before a statement is the meet of the values
+     * of its definitions reaching the statement. For a use, they are given
+     * by the def-use chains, otherwise, they are found by walking the CFG
+     * backward from the statement until the variable is defined.
+     * <p>
+     * The facts are computed for each query, thus the clients which
+     * query the facts of all statements should rather use dense constant
+     * propagation. This result is read-only.
+     */
+    public class Result extends DataflowResult<Stmt, CPFact> {
+
+        private final CFG<Stmt> cfg;
+
+        private final DefUseIndex index;
+
+        /**
+         * Values of variables at the entry of the method.
+         */
+        private final Value[] entryValues;
+
+        /**
+         * Value defined by each statement, or null if it defines nothing.
+         */
+        private final Value[] defValues;
+
+        private Result(CFG<Stmt> cfg, DefUseIndex index,
+                       Value[] entryValues, Value[] defValues) {
+            this.cfg = cfg;
+            this.index = index;
+            this.entryValues = entryValues;
+            this.defValues = defValues;
+        }
+
+        /**
+         * @return the value of given variable before given statement.
+         * If the statement uses the variable, the value is computed from
+         * the def-use chains directly.
+         */
+        public Value getValue(Stmt stmt, Var var) {
+            int stmtIndex = stmt.getIndex();
+            int varIndex = var.getIndex();
+            if (stmtIndex == index.getEntryIndex()) {
+                return entryValues[varIndex];
+            } else if (Arrays.binarySearch(index.getUses(stmtIndex), varIndex) >= 0) {
+                return getUseValue(stmtIndex, varIndex);
+            } else {
+                return getReachingValue(stmt, varIndex);
+            }
+        }
+
+        /**
+         * @return the value of the use of given variable at given statement.
+         */
+        private Value getUseValue(int stmtIndex, int varIndex) {
+            Value value = Value.getUndef();
+            for (int def : index.getReachingDefs(stmtIndex, varIndex)) {
+                value = meet(value, def, varIndex);
+            }
+            return value;
+        }
+
+        /**
+         * @return the meet of the values of the definitions of given
+         * variable which reach given statement, found by walking the CFG
+         * backward from the statement.
+         */
+        private Value getReachingValue(Stmt stmt, int varIndex) {
+            Value value = Value.getUndef();
+            Set<Stmt> visited = Sets.newHybridSet();
+            Deque<Stmt> stack = new ArrayDeque<>(cfg.getPredsOf(stmt));
+            while (!stack.isEmpty()) {
+                Stmt pred = stack.pop();
+                if (visited.add(pred)) {
+                    int def = pred.getIndex();
+                    if (def == index.getEntryIndex() ||
+                            index.getDef(def) == varIndex) {
+                        value = meet(value, def, varIndex);
+                    } else {
+                        stack.addAll(cfg.getPredsOf(pred));
+                    }
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Meets given value with the value of given variable defined by
+         * the statement (or the entry node) of given index.
+         */
+        private Value meet(Value value, int def, int varIndex) {
+            return constprop.meetValue(value, def == index.getEntryIndex() ?
+                    entryValues[varIndex] : defValues[def]);
+        }
+
+        @Override
+        public CPFact getInFact(Stmt stmt) {
+            CPFact fact = constprop.newInitialFact(cfg);
+            for (Var var : cfg.getIR().getVars()) {
+                fact.update(var, getValue(stmt, var));
+            }
+            return fact;
+        }
+
+        @Override
+        public void setInFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CPFact getOutFact(Stmt stmt) {
+            CPFact fact = getInFact(stmt);
+            int def = index.getDef(stmt.getIndex());
+            if (def != -1) {
+                fact.update(cfg.getIR().getVar(def), defValues[stmt.getIndex()]);
+            }
+            return fact;
+        }
+
+        @Override
+        public void setOutFact(Stmt stmt, CPFact fact) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
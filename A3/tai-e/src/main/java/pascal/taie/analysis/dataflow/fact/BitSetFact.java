@@ -0,0 +1,363 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Streams;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Represents set-like data-flow facts as bit vectors. Each element is
+ * numbered by its {@link Indexable#getIndex()}, thus this fact is suitable
+ * for elements which are densely indexed, e.g., variables of a method.
+ * Set operations between two {@link BitSetFact}s are performed word-wise,
+ * and this fact does not allocate the backing set of {@link SetFact}.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E extends Indexable> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private static final long[] EMPTY_WORDS = new long[0];
+
+    /**
+     * Maps indexes back to the elements, which is used to iterate elements.
+     */
+    private final IntFunction<E> indexer;
+
+    private long[] words;
+
+    /**
+     * Operations between the words of two facts.
+     */
+    private final WordOps ops;
+
+    /**
+     * Constructs an empty fact.
+     *
+     * @param indexer  maps indexes to the corresponding elements
+     * @param capacity the number of elements in the universe, i.e.,
+     *                 all elements must have indexes less than capacity
+     */
+    public BitSetFact(IntFunction<E> indexer, int capacity) {
+        this(indexer, capacity, false);
+    }
+
+    /**
+     * Constructs an empty fact.
+     *
+     * @param indexer  maps indexes to the corresponding elements
+     * @param capacity the number of elements in the universe, i.e.,
+     *                 all elements must have indexes less than capacity
+     * @param simd     whether perform set operations between facts by
+     *                 SIMD instructions of the Vector API; if they are
+     *                 unavailable (see {@link WordOps#vectorized()}),
+     *                 scalar operations are used instead
+     */
+    public BitSetFact(IntFunction<E> indexer, int capacity, boolean simd) {
+        super(false);
+        this.indexer = indexer;
+        this.words = capacity == 0 ? EMPTY_WORDS :
+                new long[wordIndex(capacity - 1) + 1];
+        this.ops = simd ? WordOps.vectorized() : WordOps.SCALAR;
+    }
+
+    private BitSetFact(BitSetFact<E> fact) {
+        super(false);
+        this.indexer = fact.indexer;
+        this.words = fact.words.clone();
+        this.ops = fact.ops;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * Ensures that {@link #words} can hold given number of words.
+     */
+    private void ensureCapacity(int wordsRequired) {
+        if (words.length < wordsRequired) {
+            words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
+        }
+    }
+
+    @Override
+    public boolean contains(E e) {
+        int index = e.getIndex();
+        int wordIndex = wordIndex(index);
+        return wordIndex < words.length &&
+                (words[wordIndex] & (1L << index)) != 0;
+    }
+
+    @Override
+    public boolean add(E e) {
+        int index = e.getIndex();
+        int wordIndex = wordIndex(index);
+        ensureCapacity(wordIndex + 1);
+        long oldWord = words[wordIndex];
+        words[wordIndex] = oldWord | (1L << index);
+        return words[wordIndex] != oldWord;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int index = e.getIndex();
+        int wordIndex = wordIndex(index);
+        if (wordIndex >= words.length) {
+            return false;
+        }
+        long oldWord = words[wordIndex];
+        words[wordIndex] = oldWord & ~(1L << index);
+        return words[wordIndex] != oldWord;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (filter.test(indexer.apply((i << ADDRESS_BITS_PER_WORD) + bit))) {
+                    words[i] &= ~(1L << bit);
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            ensureCapacity(that.words.length);
+            return ops.or(words, that.words, that.words.length);
+        } else {
+            boolean[] changed = {false};
+            other.stream().forEach(e -> changed[0] |= add(e));
+            return changed[0];
+        }
+    }
+
+    @Override
+    public BitSetFact<E> unionWith(SetFact<E> other) {
+        BitSetFact<E> result = copy();
+        result.union(other);
+        return result;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            int n = Math.min(words.length, that.words.length);
+            boolean changed = ops.and(words, that.words, n);
+            for (int i = n; i < words.length; ++i) {
+                if (words[i] != 0) {
+                    words[i] = 0;
+                    changed = true;
+                }
+            }
+            return changed;
+        } else {
+            return removeIf(e -> !other.contains(e));
+        }
+    }
+
+    @Override
+    public BitSetFact<E> intersectWith(SetFact<E> other) {
+        BitSetFact<E> result = copy();
+        result.intersect(other);
+        return result;
+    }
+
+    @Override
+    public boolean difference(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            int n = Math.min(words.length, that.words.length);
+            return ops.andNot(words, that.words, n);
+        } else {
+            return removeIf(other::contains);
+        }
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof BitSetFact<E> that) {
+            if (words.length < that.words.length) {
+                words = that.words.clone();
+            } else {
+                System.arraycopy(that.words, 0, words, 0, that.words.length);
+                Arrays.fill(words, that.words.length, words.length, 0L);
+            }
+        } else {
+            clear();
+            union(other);
+        }
+    }
+
+    /**
+     * Sets the content of this fact to (other - {kill}) U gens, where the
+     * elements are given by their indexes. This is the typical transfer of
+     * gen/kill problems, and it is performed in place without allocation.
+     *
+     * @param kill index of the element to be removed, or -1 if none
+     * @param gens indexes of the elements to be added, in ascending order
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setKillGen(BitSetFact<E> other, int kill, int[] gens) {
+        long[] otherWords = other.words;
+        int length = otherWords.length;
+        if (gens.length > 0) {
+            length = Math.max(length, wordIndex(gens[gens.length - 1]) + 1);
+        }
+        ensureCapacity(length);
+        int killWord = kill >= 0 ? wordIndex(kill) : -1;
+        boolean changed = false;
+        int g = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long newWord = i < otherWords.length ? otherWords[i] : 0L;
+            if (i == killWord) {
+                newWord &= ~(1L << kill);
+            }
+            for (; g < gens.length && wordIndex(gens[g]) == i; ++g) {
+                newWord |= 1L << gens[g];
+            }
+            if (newWord != words[i]) {
+                words[i] = newWord;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(this);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return indexes().mapToObj(indexer);
+    }
+
+    /**
+     * @return indexes of the elements in this fact, in ascending order.
+     */
+    private IntStream indexes() {
+        IntStream.Builder builder = IntStream.builder();
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            while (word != 0) {
+                builder.add((i << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o instanceof BitSetFact<?> that) {
+            return equalWords(that);
+        }
+        if (o instanceof SetFact<?> that) {
+            // other representation: compare by elements
+            return size() == that.size() &&
+                    ((SetFact<E>) that).stream().allMatch(this::contains);
+        }
+        return false;
+    }
+
+    private boolean equalWords(BitSetFact<?> that) {
+        long[] longer = words, shorter = that.words;
+        if (longer.length < shorter.length) {
+            longer = that.words;
+            shorter = words;
+        }
+        if (!ops.equals(longer, shorter, shorter.length)) {
+            return false;
+        }
+        for (int i = shorter.length; i < longer.length; ++i) {
+            if (longer[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long word = words[i];
+            while (word != 0) {
+                h += indexer.apply((i << ADDRESS_BITS_PER_WORD)
+                        + Long.numberOfTrailingZeros(word)).hashCode();
+                word &= word - 1;
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Streams.toString(stream());
+    }
+}
@@ -33,22 +33,29 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    /**
+     * The maps are created on the first fact set, so that subclasses
+     * which keep their facts elsewhere do not pay for them.
+     */
+    private Map<Node, Fact> inFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private Map<Node, Fact> outFacts;
 
     /**
      * @return the flowing-in fact of given node.
      */
     @Override
     public Fact getInFact(Node node) {
-        return inFacts.get(node);
+        return inFacts != null ? inFacts.get(node) : null;
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
     public void setInFact(Node node, Fact fact) {
+        if (inFacts == null) {
+            inFacts = new LinkedHashMap<>();
+        }
         inFacts.put(node, fact);
     }
 
@@ -57,13 +64,16 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      */
     @Override
     public Fact getOutFact(Node node) {
-        return outFacts.get(node);
+        return outFacts != null ? outFacts.get(node) : null;
     }
 
     /**
      * Associates a data-flow fact with a node as its flowing-out fact.
      */
     public void setOutFact(Node node, Fact fact) {
+        if (outFacts == null) {
+            outFacts = new LinkedHashMap<>();
+        }
         outFacts.put(node, fact);
     }
 }
@@ -0,0 +1,222 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps {@link DataflowResult}s of completed methods off the heap.
+ * The facts of the results are encoded into a memory-mapped file,
+ * and only a few recently used results are kept on the heap. The others
+ * are decoded from the file when their facts are queried again.
+ * <p>
+ * This class is thread-safe.
+ */
+public class DataflowResultStore {
+
+    /**
+     * Size of each mapped region of the file. A result larger than it
+     * is mapped to a region of its own.
+     */
+    private static final int SEGMENT_SIZE = 64 << 20;
+
+    private final String prefix;
+
+    private final Path dir;
+
+    /**
+     * Recently used results, in the order of access.
+     */
+    private final Map<SpilledDataflowResult<?, ?>, DataflowResult<?, ?>> cache;
+
+    private FileChannel channel;
+
+    /**
+     * Closes this store when the JVM shuts down, registered when
+     * the file is created.
+     */
+    private Thread closer;
+
+    private boolean closed;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * The mapped region to which new results are appended.
+     */
+    private MappedByteBuffer current;
+
+    /**
+     * Size of the mapped part of the file.
+     */
+    private long mappedSize;
+
+    /**
+     * @param prefix    prefix of the name of the file
+     * @param dir       directory of the file, or null for the default
+     *                  temporary-file directory
+     * @param cacheSize maximum number of results kept on the heap
+     */
+    public DataflowResultStore(String prefix, Path dir, int cacheSize) {
+        this.prefix = prefix;
+        this.dir = dir;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<SpilledDataflowResult<?, ?>, DataflowResult<?, ?>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Stores given result of given CFG in this store.
+     *
+     * @return a read-only result with the same facts as given result,
+     * which queries the facts from this store.
+     */
+    public <Node, Fact> SpilledDataflowResult<Node, Fact> spill(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result,
+            FactCodec<Fact> codec) {
+        SpilledDataflowResult<Node, Fact> spilled = new SpilledDataflowResult<>(
+                this, cfg, codec, write(FactCodec.encodeResult(cfg, result, codec)));
+        synchronized (this) {
+            // the result has just been computed, and it is likely
+            // to be queried soon
+            cache.put(spilled, result);
+        }
+        return spilled;
+    }
+
+    /**
+     * @return the result of given spilled result, which is decoded
+     * from the file if it is not on the heap.
+     */
+    @SuppressWarnings("unchecked")
+    <Node, Fact> DataflowResult<Node, Fact> get(SpilledDataflowResult<Node, Fact> spilled) {
+        synchronized (this) {
+            DataflowResult<?, ?> result = cache.get(spilled);
+            if (result != null) {
+                return (DataflowResult<Node, Fact>) result;
+            }
+        }
+        DataflowResult<Node, Fact> result = load(spilled);
+        synchronized (this) {
+            cache.put(spilled, result);
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the result of given spilled result from the file.
+     */
+    <Node, Fact> DataflowResult<Node, Fact> load(SpilledDataflowResult<Node, Fact> spilled) {
+        return FactCodec.decodeResult(spilled.getCFG(),
+                read(spilled.getLocation()), spilled.getCodec());
+    }
+
+    /**
+     * Location of the bytes of a result in the file.
+     */
+    record Location(int segment, int offset, int length) {
+    }
+
+    private synchronized Location write(byte[] bytes) {
+        checkOpen();
+        try {
+            if (channel == null) {
+                Path file = dir != null ?
+                        Files.createTempFile(dir, prefix, ".facts") :
+                        Files.createTempFile(prefix, ".facts");
+                channel = FileChannel.open(file, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                closer = new Thread(this::close, "close-" + prefix);
+                Runtime.getRuntime().addShutdownHook(closer);
+            }
+            if (current == null || current.remaining() < bytes.length) {
+                int size = Math.max(SEGMENT_SIZE, bytes.length);
+                current = channel.map(FileChannel.MapMode.READ_WRITE, mappedSize, size);
+                mappedSize += size;
+                segments.add(current);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to map the file of " + prefix, e);
+        }
+        int offset = current.position();
+        current.put(bytes);
+        return new Location(segments.size() - 1, offset, bytes.length);
+    }
+
+    /**
+     * Closes this store and deletes its file. The results spilled to
+     * this store cannot be queried afterwards.
+     */
+    public synchronized void close() {
+        closed = true;
+        cache.clear();
+        segments.clear();
+        current = null;
+        mappedSize = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to close the file of " + prefix, e);
+            } finally {
+                channel = null;
+            }
+            if (Thread.currentThread() != closer) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(closer);
+                } catch (IllegalStateException e) {
+                    // the JVM is already shutting down
+                }
+            }
+            closer = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The store of " + prefix + " is closed");
+        }
+    }
+
+    private synchronized byte[] read(Location location) {
+        checkOpen();
+        byte[] bytes = new byte[location.length()];
+        segments.get(location.segment()).get(location.offset(), bytes);
+        return bytes;
+    }
+}
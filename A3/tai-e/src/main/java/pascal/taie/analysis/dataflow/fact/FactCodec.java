@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Encodes data-flow facts into bytes and decodes them back, which is used
+ * to keep facts off the heap (see {@link DataflowResultStore}).
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public interface FactCodec<Fact> {
+
+    /**
+     * Writes given fact, which may be null, to the output.
+     */
+    void encode(Fact fact, DataOutput out) throws IOException;
+
+    /**
+     * Reads a fact written by {@link #encode(Object, DataOutput)}.
+     */
+    Fact decode(DataInput in) throws IOException;
+
+    /**
+     * Encodes the in and out facts of all nodes of given CFG in given result.
+     * If the nodes are {@link Indexable}, they are encoded in the order of
+     * their indexes, so that the bytes can be decoded for another CFG
+     * object of the same method, e.g., in another run.
+     */
+    static <Node, Fact> byte[] encodeResult(
+            CFG<Node> cfg, NodeResult<Node, Fact> result, FactCodec<Fact> codec) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            for (Node node : getOrderedNodes(cfg)) {
+                codec.encode(result.getInFact(node), out);
+                codec.encode(result.getOutFact(node), out);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to encode data-flow facts", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the facts encoded by
+     * {@link #encodeResult(CFG, NodeResult, FactCodec)} for given CFG.
+     *
+     * @return a new result containing the decoded facts.
+     */
+    static <Node, Fact> DataflowResult<Node, Fact> decodeResult(
+            CFG<Node> cfg, byte[] bytes, FactCodec<Fact> codec) {
+        DataflowResult<Node, Fact> result = IndexedDataflowResult.isApplicable(cfg) ?
+                new IndexedDataflowResult<>(cfg.getNumberOfNodes()) :
+                new DataflowResult<>();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            for (Node node : getOrderedNodes(cfg)) {
+                result.setInFact(node, codec.decode(in));
+                result.setOutFact(node, codec.decode(in));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to decode data-flow facts", e);
+        }
+        return result;
+    }
+
+    private static <Node> List<Node> getOrderedNodes(CFG<Node> cfg) {
+        List<Node> nodes = new ArrayList<>(cfg.getNumberOfNodes());
+        cfg.forEach(nodes::add);
+        if (IndexedDataflowResult.isApplicable(cfg)) {
+            nodes.sort(Comparator.comparingInt(n -> ((Indexable) n).getIndex()));
+        }
+        return nodes;
+    }
+
+    /**
+     * @param factory creates empty facts, which determines the
+     *                representation of the decoded facts
+     * @param indexer maps indexes back to the corresponding elements
+     * @return a codec for {@link SetFact}s which encodes the elements
+     * by their indexes.
+     */
+    static <E extends Indexable> FactCodec<SetFact<E>> ofSetFact(
+            Supplier<? extends SetFact<E>> factory, IntFunction<E> indexer) {
+        return new FactCodec<>() {
+            @Override
+            public void encode(SetFact<E> fact, DataOutput out) throws IOException {
+                if (fact == null) {
+                    out.writeInt(-1);
+                    return;
+                }
+                out.writeInt(fact.size());
+                Iterator<E> iter = fact.stream().iterator();
+                while (iter.hasNext()) {
+                    out.writeInt(iter.next().getIndex());
+                }
+            }
+
+            @Override
+            public SetFact<E> decode(DataInput in) throws IOException {
+                int size = in.readInt();
+                if (size < 0) {
+                    return null;
+                }
+                SetFact<E> fact = factory.get();
+                for (int i = 0; i < size; ++i) {
+                    fact.add(indexer.apply(in.readInt()));
+                }
+                return fact;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pool of canonical data-flow facts. Equal facts (by {@link Object#equals})
+ * are interned to the same instance, so that they are stored once, and
+ * comparing interned facts is a reference comparison.
+ * <p>
+ * Interned facts are shared, thus they must not be modified afterwards.
+ * Clients which need to update an interned fact should work on its copy.
+ *
+ * @param <Fact> type of data-flow facts
+ */
+public class FactInterner<Fact> {
+
+    private final Map<Fact, Fact> pool = new HashMap<>();
+
+    /**
+     * @return the canonical instance of the facts equal to given fact.
+     */
+    public Fact intern(Fact fact) {
+        if (fact == null) {
+            return null;
+        }
+        Fact canonical = pool.putIfAbsent(fact, fact);
+        return canonical != null ? canonical : fact;
+    }
+
+    /**
+     * @return the number of distinct facts in this pool.
+     */
+    public int size() {
+        return pool.size();
+    }
+
+    /**
+     * Replaces the in and out facts of the nodes of given CFG in given
+     * result by their canonical instances. This is typically done after
+     * the result has reached the fixed point.
+     */
+    public static <Node, Fact> void internAll(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        FactInterner<Fact> interner = new FactInterner<>();
+        for (Node node : cfg) {
+            result.setInFact(node, interner.intern(result.getInFact(node)));
+            result.setOutFact(node, interner.intern(result.getOutFact(node)));
+        }
+    }
+}
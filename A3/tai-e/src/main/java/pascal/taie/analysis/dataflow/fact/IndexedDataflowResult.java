@@ -0,0 +1,177 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * A {@link DataflowResult} for CFGs whose nodes have stable and dense
+ * indexes, e.g., {@link pascal.taie.ir.stmt.Stmt#getIndex()}. The facts
+ * are stored in arrays indexed by the nodes, so that querying and
+ * updating facts do not need to hash the nodes.
+ * <p>
+ * The node of each slot is also recorded, so that the facts can be moved
+ * along with their nodes when the nodes are re-indexed (see {@link #reindex}).
+ *
+ * @param <Node> type of nodes, which must be {@link Indexable}
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private Object[] inFacts;
+
+    private Object[] outFacts;
+
+    /**
+     * The node whose facts are stored at each index.
+     */
+    private Object[] nodes;
+
+    /**
+     * @param capacity the initial capacity, which is typically
+     *                 the number of nodes in the CFG.
+     */
+    public IndexedDataflowResult(int capacity) {
+        inFacts = new Object[capacity];
+        outFacts = new Object[capacity];
+        nodes = new Object[capacity];
+    }
+
+    /**
+     * @return true if the nodes of given CFG are {@link Indexable},
+     * and their indexes are distinct and range from 0 to
+     * (number of nodes - 1), otherwise false.
+     */
+    public static boolean isApplicable(CFG<?> cfg) {
+        int size = cfg.getNumberOfNodes();
+        BitSet indexes = new BitSet(size);
+        for (Object node : cfg) {
+            if (!(node instanceof Indexable)) {
+                return false;
+            }
+            int index = ((Indexable) node).getIndex();
+            if (index < 0 || index >= size || indexes.get(index)) {
+                return false;
+            }
+            indexes.set(index);
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        int index = ((Indexable) node).getIndex();
+        return index < inFacts.length ? (Fact) inFacts[index] : null;
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        int index = ((Indexable) node).getIndex();
+        if (index >= inFacts.length) {
+            inFacts = Arrays.copyOf(inFacts, Math.max(index + 1, 2 * inFacts.length));
+        }
+        inFacts[index] = fact;
+        setNode(index, node);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        int index = ((Indexable) node).getIndex();
+        return index < outFacts.length ? (Fact) outFacts[index] : null;
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        int index = ((Indexable) node).getIndex();
+        if (index >= outFacts.length) {
+            outFacts = Arrays.copyOf(outFacts, Math.max(index + 1, 2 * outFacts.length));
+        }
+        outFacts[index] = fact;
+        setNode(index, node);
+    }
+
+    private void setNode(int index, Object node) {
+        if (index >= nodes.length) {
+            nodes = Arrays.copyOf(nodes, Math.max(index + 1, 2 * nodes.length));
+        }
+        nodes[index] = node;
+    }
+
+    /**
+     * Moves the facts to the current indexes of their nodes after the nodes
+     * of given CFG are re-indexed, e.g., when statements are inserted into
+     * or removed from an IR. The facts of the nodes which are not in the CFG
+     * are dropped, and the nodes which have no facts before, e.g., the new
+     * ones, have no facts after.
+     */
+    public void reindex(CFG<Node> cfg) {
+        if (isIndexed(cfg)) {
+            return;
+        }
+        Map<Object, Integer> oldIndexes = Maps.newMap(nodes.length);
+        for (int i = 0; i < nodes.length; ++i) {
+            if (nodes[i] != null) {
+                oldIndexes.put(nodes[i], i);
+            }
+        }
+        int size = cfg.getNumberOfNodes();
+        Object[] newInFacts = new Object[size];
+        Object[] newOutFacts = new Object[size];
+        Object[] newNodes = new Object[size];
+        for (Node node : cfg) {
+            Integer oldIndex = oldIndexes.get(node);
+            if (oldIndex != null) {
+                int index = ((Indexable) node).getIndex();
+                newInFacts[index] = inFacts[oldIndex];
+                newOutFacts[index] = outFacts[oldIndex];
+                newNodes[index] = node;
+            }
+        }
+        inFacts = newInFacts;
+        outFacts = newOutFacts;
+        nodes = newNodes;
+    }
+
+    /**
+     * @return true if the facts of all nodes of given CFG, if any,
+     * are stored at the current indexes of the nodes.
+     */
+    private boolean isIndexed(CFG<Node> cfg) {
+        for (Node node : cfg) {
+            int index = ((Indexable) node).getIndex();
+            if (index < nodes.length && nodes[index] != null
+                    && nodes[index] != node) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
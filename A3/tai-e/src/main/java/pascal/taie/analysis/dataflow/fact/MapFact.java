@@ -41,7 +41,8 @@ import java.util.stream.Stream;
 public class MapFact<K, V> {
 
     /**
-     * The map holding the mappings of this MapFact.
+     * The map holding the mappings of this MapFact, which is null for
+     * the subclasses that represent the mappings by themselves.
      */
     protected final Map<K, V> map;
 
@@ -54,6 +55,23 @@ public class MapFact<K, V> {
         this.map = Maps.newHybridMap(map);
     }
 
+    /**
+     * Constructs a new MapFact backed by given persistent map.
+     * Unlike {@link #MapFact(Map)}, the map is used directly instead of
+     * being copied, so that subclasses can share tries between facts.
+     */
+    protected MapFact(PersistentMap<K, V> map) {
+        this.map = map;
+    }
+
+    /**
+     * @param backed whether allocate the map. Subclasses which do not
+     *               allocate it must override all operations of this class.
+     */
+    protected MapFact(boolean backed) {
+        this.map = backed ? Maps.newHybridMap() : null;
+    }
+
     /**
      * @return the value to which the specified key is mapped,
      * or null if this map contains no mapping for the key.
@@ -87,13 +105,39 @@ public class MapFact<K, V> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean copyFrom(MapFact<K, V> fact) {
+        if (map instanceof PersistentMap<K, V> persistent &&
+                fact.map instanceof PersistentMap<K, V> other &&
+                getClass() == fact.getClass()) {
+            if (persistent.isSameTrie(other)) {
+                return false;
+            }
+            if (persistent.isEmpty()) {
+                // share the trie of the other fact
+                persistent.set(other);
+                return !other.isEmpty();
+            }
+        }
         boolean changed = false;
-        for (Map.Entry<K, V> entry : fact.map.entrySet()) {
-            changed |= update(entry.getKey(), entry.getValue());
+        if (fact.map != null) {
+            for (Map.Entry<K, V> entry : fact.map.entrySet()) {
+                changed |= update(entry.getKey(), entry.getValue());
+            }
+        } else {
+            for (K key : fact.keySet()) {
+                changed |= update(key, fact.get(key));
+            }
         }
         return changed;
     }
 
+    /**
+     * @return the map of this fact, for the subclasses backed by
+     * {@link PersistentMap} (see {@link #MapFact(PersistentMap)}).
+     */
+    protected PersistentMap<K, V> getPersistentMap() {
+        return (PersistentMap<K, V>) map;
+    }
+
     /**
      * Creates and returns a copy of this fact.
      */
@@ -108,6 +152,13 @@ public class MapFact<K, V> {
         map.clear();
     }
 
+    /**
+     * @return true if this fact contains no key-value mappings, otherwise false.
+     */
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
     /**
      * @return a {@link Set} view of the keys contained in this fact.
      */
@@ -0,0 +1,502 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A map backed by a persistent hash array mapped trie. The trie is
+ * immutable, and each update copies only the path from the root to
+ * the updated entry, thus {@link #fork()} is O(1) and the maps forked
+ * from each other share all unchanged parts of the trie.
+ * <p>
+ * This map does not permit null keys.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+public class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS_PER_LEVEL = 5;
+
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    /**
+     * Maximum depth of the trie: 7 levels of {@link BitmapNode}s
+     * consume all 32 bits of hash code, plus a {@link CollisionNode}.
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private Node root;
+
+    private int size;
+
+    private Set<Entry<K, V>> entrySet;
+
+    public PersistentMap() {
+        this(EMPTY, 0);
+    }
+
+    private PersistentMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return a new map which has the same mappings as this map.
+     * The two maps share the same trie, and updating either of them
+     * does not affect the other one.
+     */
+    public PersistentMap<K, V> fork() {
+        return new PersistentMap<>(root, size);
+    }
+
+    /**
+     * @return true if this map and other map share the same trie,
+     * which means that they must have the same mappings.
+     */
+    public boolean isSameTrie(PersistentMap<?, ?> other) {
+        return root == other.root;
+    }
+
+    /**
+     * Sets the content of this map to the same as other map
+     * by sharing the trie of other map.
+     */
+    public void set(PersistentMap<K, V> other) {
+        root = other.root;
+        size = other.size;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null &&
+                root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    @Override
+    public V get(Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(Object key, V defaultValue) {
+        if (key == null) {
+            return defaultValue;
+        }
+        Object value = root.find(0, hash(key), key);
+        return value == NOT_FOUND ? defaultValue : (V) value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        int hash = hash(key);
+        Object oldValue = root.find(0, hash, key);
+        if (oldValue == NOT_FOUND) {
+            ++size;
+        } else if (Objects.equals(oldValue, value)) {
+            return value;
+        }
+        root = root.put(0, hash, key, value);
+        return oldValue == NOT_FOUND ? null : cast(oldValue);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        int hash = hash(key);
+        Object oldValue = root.find(0, hash, key);
+        if (oldValue == NOT_FOUND) {
+            return null;
+        }
+        Node newRoot = root.remove(0, hash, key);
+        root = newRoot == null ? EMPTY : newRoot;
+        --size;
+        return cast(oldValue);
+    }
+
+    @Override
+    public void clear() {
+        root = EMPTY;
+        size = 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof PersistentMap<?, ?> that && isSameTrie(that)) {
+            return true;
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object o) {
+        return (T) o;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Iterates the entries of the trie at the time this iterator is created.
+     * As the trie is immutable, removing entries through this iterator
+     * does not affect the iteration.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Object[][] arrays = new Object[MAX_DEPTH + 1][];
+
+        private final int[] positions = new int[MAX_DEPTH + 1];
+
+        private int depth;
+
+        private Entry<K, V> next;
+
+        private K lastKey;
+
+        private EntryIterator() {
+            arrays[0] = root.array();
+            advance();
+        }
+
+        /**
+         * Moves {@link #next} to the next entry in depth-first order.
+         */
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int pos = positions[depth];
+                if (pos >= array.length) {
+                    --depth;
+                    continue;
+                }
+                positions[depth] = pos + 2;
+                Object key = array[pos];
+                Object value = array[pos + 1];
+                if (key == null) {
+                    ++depth;
+                    arrays[depth] = ((Node) value).array();
+                    positions[depth] = 0;
+                } else {
+                    next = new SimpleImmutableEntry<>(cast(key), cast(value));
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<K, V> entry = next;
+            lastKey = entry.getKey();
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            PersistentMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    /**
+     * Immutable node of the trie.
+     */
+    private abstract static class Node {
+
+        /**
+         * @return the value of given key, or {@link #NOT_FOUND} if absent.
+         */
+        abstract Object find(int shift, int hash, Object key);
+
+        /**
+         * @return the node which contains given mapping.
+         */
+        abstract Node put(int shift, int hash, Object key, Object value);
+
+        /**
+         * @return the node without given key, or null if the resulting
+         * node is empty. The key must be present in this node.
+         */
+        abstract Node remove(int shift, int hash, Object key);
+
+        /**
+         * @return the key-value array of this node. In the array,
+         * a null key means that the following element is a child node.
+         */
+        abstract Object[] array();
+
+        void forEach(BiConsumer<Object, Object> action) {
+            Object[] array = array();
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Node whose children are indexed by {@link #BITS_PER_LEVEL} bits
+     * of hash codes. A child is either a key-value pair or a sub-node.
+     */
+    private static final class BitmapNode extends Node {
+
+        private final int bitmap;
+
+        private final Object[] array;
+
+        private BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private static int bit(int shift, int hash) {
+            return 1 << ((hash >>> shift) & LEVEL_MASK);
+        }
+
+        private int index(int bit) {
+            return 2 * Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int i = index(bit);
+            Object k = array[i];
+            if (k == null) {
+                return ((Node) array[i + 1]).find(
+                        shift + BITS_PER_LEVEL, hash, key);
+            }
+            return key.equals(k) ? array[i + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value) {
+            int bit = bit(shift, hash);
+            int i = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, i);
+                newArray[i] = key;
+                newArray[i + 1] = value;
+                System.arraycopy(array, i, newArray, i + 2, array.length - i);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            Object k = array[i];
+            Object v = array[i + 1];
+            Object[] newArray = array.clone();
+            if (k == null) {
+                newArray[i + 1] = ((Node) v).put(
+                        shift + BITS_PER_LEVEL, hash, key, value);
+            } else if (key.equals(k)) {
+                newArray[i + 1] = value;
+            } else {
+                newArray[i] = null;
+                newArray[i + 1] = createNode(shift + BITS_PER_LEVEL,
+                        k, v, hash, key, value);
+            }
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private static Node createNode(int shift, Object k1, Object v1,
+                                       int h2, Object k2, Object v2) {
+            int h1 = hash(k1);
+            if (h1 == h2) {
+                return new CollisionNode(h1, new Object[]{k1, v1, k2, v2});
+            }
+            return EMPTY.put(shift, h1, k1, v1).put(shift, h2, k2, v2);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            int i = index(bit);
+            if (array[i] == null) {
+                Node child = ((Node) array[i + 1]).remove(
+                        shift + BITS_PER_LEVEL, hash, key);
+                if (child != null) {
+                    Object[] newArray = array.clone();
+                    newArray[i + 1] = child;
+                    return new BitmapNode(bitmap, newArray);
+                }
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+    }
+
+    /**
+     * Node holding the keys whose hash codes are identical.
+     */
+    private static final class CollisionNode extends Node {
+
+        private final int hash;
+
+        private final Object[] array;
+
+        private CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            if (hash == this.hash) {
+                int i = indexOf(key);
+                if (i != -1) {
+                    return array[i + 1];
+                }
+            }
+            return NOT_FOUND;
+        }
+
+        @Override
+        Node put(int shift, int hash, Object key, Object value) {
+            if (hash != this.hash) {
+                // nest this node in a bitmap node to separate the hashes
+                return new BitmapNode(BitmapNode.bit(shift, this.hash),
+                        new Object[]{null, this}).put(shift, hash, key, value);
+            }
+            int i = indexOf(key);
+            Object[] newArray;
+            if (i != -1) {
+                newArray = array.clone();
+            } else {
+                i = array.length;
+                newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, array.length);
+                newArray[i] = key;
+            }
+            newArray[i + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(int shift, int hash, Object key) {
+            if (array.length == 2) {
+                return null;
+            }
+            int i = indexOf(key);
+            Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, i);
+            System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Object[] array() {
+            return array;
+        }
+    }
+}
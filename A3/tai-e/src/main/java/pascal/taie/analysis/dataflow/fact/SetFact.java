@@ -33,11 +33,17 @@ import java.util.stream.Stream;
 
 /**
  * Represents set-like data-flow facts.
+ * The binary operations accept any {@link SetFact} as the other operand,
+ * including the subclasses with different representations.
  *
  * @param <E> type of elements
  */
 public class SetFact<E> {
 
+    /**
+     * The backing set, which is null for the subclasses
+     * that represent the elements by themselves.
+     */
     protected final Set<E> set;
 
     public SetFact(Collection<E> c) {
@@ -48,6 +54,15 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * @param backed whether allocate the backing set. Subclasses which
+     *               do not allocate it must override all operations
+     *               of this class.
+     */
+    SetFact(boolean backed) {
+        set = backed ? Sets.newHybridSet() : null;
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -89,7 +104,12 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        if (other.set != null) {
+            return set.addAll(other.set);
+        }
+        boolean[] changed = {false};
+        other.stream().forEach(e -> changed[0] |= set.add(e));
+        return changed[0];
     }
 
     /**
@@ -107,7 +127,8 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return other.set != null ? set.retainAll(other.set) :
+                set.removeIf(e -> !other.contains(e));
     }
 
     /**
@@ -119,6 +140,16 @@ public class SetFact<E> {
         return result;
     }
 
+    /**
+     * Removes the elements of other fact from this fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean difference(SetFact<E> other) {
+        return other.set != null ? set.removeAll(other.set) :
+                set.removeIf(other::contains);
+    }
+
     /**
      * Sets the content of this set to the same as other set.
      */
@@ -161,9 +192,15 @@ public class SetFact<E> {
         if (!(o instanceof SetFact<?> that)) {
             return false;
         }
-        return set.equals(that.set);
+        // let the subclass compare its own representation with this fact
+        return that.set != null ? set.equals(that.set) : that.equals(this);
     }
 
+    /**
+     * The hash code is the sum of the hash codes of the elements
+     * (as {@link Set#hashCode()}), which subclasses must follow,
+     * so that equal facts of different representations are consistent.
+     */
     @Override
     public int hashCode() {
         return set.hashCode();
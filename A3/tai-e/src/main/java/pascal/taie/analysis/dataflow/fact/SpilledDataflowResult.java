@@ -0,0 +1,90 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+/**
+ * A read-only {@link DataflowResult} whose facts are kept in
+ * a {@link DataflowResultStore}, and are paged in when queried.
+ *
+ * @param <Node> type of nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class SpilledDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final DataflowResultStore store;
+
+    private final CFG<Node> cfg;
+
+    private final FactCodec<Fact> codec;
+
+    private final DataflowResultStore.Location location;
+
+    SpilledDataflowResult(DataflowResultStore store, CFG<Node> cfg,
+                          FactCodec<Fact> codec, DataflowResultStore.Location location) {
+        this.store = store;
+        this.cfg = cfg;
+        this.codec = codec;
+        this.location = location;
+    }
+
+    CFG<Node> getCFG() {
+        return cfg;
+    }
+
+    FactCodec<Fact> getCodec() {
+        return codec;
+    }
+
+    DataflowResultStore.Location getLocation() {
+        return location;
+    }
+
+    /**
+     * @return a new modifiable result with the same facts as this result.
+     */
+    public DataflowResult<Node, Fact> load() {
+        return store.load(this);
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return store.get(this).getInFact(node);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return store.get(this).getOutFact(node);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+/**
+ * Word-wise operations on bit vectors, i.e., arrays of longs, which are
+ * the hot loops of {@link BitSetFact}. Each operation updates the first
+ * {@code length} words of the target with the corresponding words of
+ * the source, and returns whether the target changed.
+ */
+abstract class WordOps {
+
+    /**
+     * Plain Java loops, which are always available.
+     */
+    static final WordOps SCALAR = new WordOps() {
+
+        @Override
+        boolean or(long[] target, long[] source, int length) {
+            boolean changed = false;
+            for (int i = 0; i < length; ++i) {
+                long oldWord = target[i];
+                long newWord = oldWord | source[i];
+                if (newWord != oldWord) {
+                    target[i] = newWord;
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        @Override
+        boolean and(long[] target, long[] source, int length) {
+            boolean changed = false;
+            for (int i = 0; i < length; ++i) {
+                long oldWord = target[i];
+                long newWord = oldWord & source[i];
+                if (newWord != oldWord) {
+                    target[i] = newWord;
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        @Override
+        boolean andNot(long[] target, long[] source, int length) {
+            boolean changed = false;
+            for (int i = 0; i < length; ++i) {
+                long oldWord = target[i];
+                long newWord = oldWord & ~source[i];
+                if (newWord != oldWord) {
+                    target[i] = newWord;
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        @Override
+        boolean equals(long[] words1, long[] words2, int length) {
+            for (int i = 0; i < length; ++i) {
+                if (words1[i] != words2[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    /**
+     * SIMD operations by the Vector API, or {@link #SCALAR} if they are
+     * not on the class path (they are built in source set {@code vector})
+     * or module {@code jdk.incubator.vector} is unavailable at runtime.
+     */
+    private static final WordOps VECTOR = loadVectorOps();
+
+    private static WordOps loadVectorOps() {
+        try {
+            return (WordOps) Class.forName(WordOps.class.getPackageName() + ".VectorWordOps")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return SCALAR;
+        }
+    }
+
+    /**
+     * @return the SIMD operations if they are available, otherwise
+     * the scalar operations.
+     */
+    static WordOps vectorized() {
+        return VECTOR;
+    }
+
+    /**
+     * target |= source
+     */
+    abstract boolean or(long[] target, long[] source, int length);
+
+    /**
+     * target &= source
+     */
+    abstract boolean and(long[] target, long[] source, int length);
+
+    /**
+     * target &= ~source
+     */
+    abstract boolean andNot(long[] target, long[] source, int length);
+
+    /**
+     * @return true if the first length words of the two arrays are equal.
+     */
+    abstract boolean equals(long[] words1, long[] words2, int length);
+}
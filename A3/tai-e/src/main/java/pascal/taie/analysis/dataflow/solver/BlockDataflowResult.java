@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.AnalysisException;
+
+import java.util.List;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * Data-flow result of {@link BlockSolver}. It stores the in (out) facts
+ * of the first (last) nodes of blocks, and recomputes the facts of other
+ * nodes by flowing the stored facts through the blocks when they are
+ * queried. The facts of the most recently queried block are cached,
+ * so that querying the nodes of a block one by one is cheap.
+ */
+class BlockDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final CFG<Node> cfg;
+
+    private final BlockCFG<Node> blockCFG;
+
+    private final Object[] firstInFacts;
+
+    private final Object[] lastOutFacts;
+
+    /**
+     * Facts of the most recently recomputed block. The cached object
+     * is immutable, thus it can be safely replaced by any thread.
+     */
+    private BlockFacts cache;
+
+    BlockDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                        CFG<Node> cfg, BlockCFG<Node> blockCFG) {
+        this.analysis = analysis;
+        this.cfg = cfg;
+        this.blockCFG = blockCFG;
+        this.firstInFacts = new Object[blockCFG.getNumberOfNodes()];
+        this.lastOutFacts = new Object[blockCFG.getNumberOfNodes()];
+    }
+
+    BlockCFG<Node> getBlockCFG() {
+        return blockCFG;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(Node node) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        int pos = blockCFG.getPositionOf(node);
+        return (Fact) (pos == 0 ? firstInFacts[block.getIndex()] :
+                getFacts(block).inFacts[pos]);
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null || blockCFG.getPositionOf(node) != 0) {
+            throw new AnalysisException(node + " is not the first node of a block");
+        }
+        firstInFacts[block.getIndex()] = fact;
+        cache = null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(Node node) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        int pos = blockCFG.getPositionOf(node);
+        return (Fact) (pos == block.size() - 1 ? lastOutFacts[block.getIndex()] :
+                getFacts(block).outFacts[pos]);
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        BasicBlock<Node> block = blockCFG.getBlockOf(node);
+        if (block == null || blockCFG.getPositionOf(node) != block.size() - 1) {
+            throw new AnalysisException(node + " is not the last node of a block");
+        }
+        lastOutFacts[block.getIndex()] = fact;
+        cache = null;
+    }
+
+    private BlockFacts getFacts(BasicBlock<Node> block) {
+        BlockFacts facts = cache;
+        if (facts == null || facts.block != block) {
+            facts = recompute(block);
+            cache = facts;
+        }
+        return facts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private BlockFacts recompute(BasicBlock<Node> block) {
+        List<Node> nodes = block.getNodes();
+        int size = nodes.size();
+        Object[] inFacts = new Object[size];
+        Object[] outFacts = new Object[size];
+        inFacts[0] = firstInFacts[block.getIndex()];
+        outFacts[size - 1] = lastOutFacts[block.getIndex()];
+        if (analysis.isForward()) {
+            for (int i = 0; i < size - 1; ++i) {
+                Node node = nodes.get(i);
+                Fact out = analysis.newInitialFact(cfg);
+                analysis.transferNode(node, (Fact) inFacts[i], out);
+                outFacts[i] = out;
+                inFacts[i + 1] = BlockSolver.flow(analysis, cfg,
+                        getOne(cfg.getOutEdgesOf(node)), out);
+            }
+        } else {
+            for (int i = size - 1; i > 0; --i) {
+                Node node = nodes.get(i);
+                Fact in = analysis.newInitialFact(cfg);
+                analysis.transferNode(node, in, (Fact) outFacts[i]);
+                inFacts[i] = in;
+                outFacts[i - 1] = BlockSolver.flow(analysis, cfg,
+                        getOne(cfg.getInEdgesOf(node)), in);
+            }
+        }
+        return new BlockFacts(block, inFacts, outFacts);
+    }
+
+    private static class BlockFacts {
+
+        private final BasicBlock<?> block;
+
+        private final Object[] inFacts;
+
+        private final Object[] outFacts;
+
+        private BlockFacts(BasicBlock<?> block, Object[] inFacts, Object[] outFacts) {
+            this.block = block;
+            this.inFacts = inFacts;
+            this.outFacts = outFacts;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockCFG;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.List;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * Solver which iterates over the basic blocks of CFGs (see {@link BlockCFG})
+ * instead of individual nodes, in the order decided by an {@link IterationStrategy}.
+ * <p>
+ * Facts are met only at the boundaries of blocks, and the result keeps
+ * only the in (out) fact of the first (last) node of each block.
+ * Each time a block is processed, the facts flow through the nodes of
+ * the block in temporary facts. The facts of the nodes inside blocks
+ * are recomputed in the same way when they are queried from the result.
+ */
+class BlockSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private final IterationStrategy strategy;
+
+    BlockSolver(DataflowAnalysis<Node, Fact> analysis, IterationStrategy strategy) {
+        super(analysis);
+        this.strategy = strategy;
+    }
+
+    @Override
+    protected Solver<Node, Fact> withAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+        return new BlockSolver<>(analysis, strategy);
+    }
+
+    @Override
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return new BlockDataflowResult<>(analysis, cfg, new BlockCFG<>(cfg));
+    }
+
+    private static <Node, Fact> BlockCFG<Node> getBlockCFG(
+            DataflowResult<Node, Fact> result) {
+        return ((BlockDataflowResult<Node, Fact>) result).getBlockCFG();
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Node entry = cfg.getEntry();
+        Fact entryFact = analysis.newBoundaryFact(cfg);
+        result.setInFact(entry, entryFact);
+        result.setOutFact(entry, entryFact);
+        BlockCFG<Node> blockCFG = getBlockCFG(result);
+        for (BasicBlock<Node> block : blockCFG) {
+            if (!blockCFG.isEntry(block)) {
+                result.setInFact(block.getFirst(), analysis.newInitialFact(cfg));
+                result.setOutFact(block.getLast(), analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        Node exit = cfg.getExit();
+        Fact exitFact = analysis.newBoundaryFact(cfg);
+        result.setInFact(exit, exitFact);
+        result.setOutFact(exit, exitFact);
+        BlockCFG<Node> blockCFG = getBlockCFG(result);
+        for (BasicBlock<Node> block : blockCFG) {
+            if (!blockCFG.isExit(block)) {
+                result.setInFact(block.getFirst(), analysis.newInitialFact(cfg));
+                result.setOutFact(block.getLast(), analysis.newInitialFact(cfg));
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        boolean meetInPlace = analysis.isMeetInPlace();
+        BlockCFG<Node> blockCFG = getBlockCFG(result);
+        strategy.iterate(blockCFG, true, countVisits(block -> {
+            if (blockCFG.isEntry(block)) {
+                return false;
+            }
+            Node first = block.getFirst();
+            Fact in;
+            if (meetInPlace) {
+                in = result.getInFact(first);
+            } else {
+                in = analysis.newInitialFact(cfg);
+                result.setInFact(first, in);
+            }
+            for (Edge<Node> inEdge : cfg.getInEdgesOf(first)) {
+                Fact predOut = result.getOutFact(inEdge.getSource());
+                if (analysis.needTransferEdge(inEdge)) {
+                    predOut = analysis.transferEdge(inEdge, predOut);
+                }
+                analysis.meetInto(predOut, in);
+            }
+            List<Node> nodes = block.getNodes();
+            int last = nodes.size() - 1;
+            for (int j = 0; j < last; ++j) {
+                Node node = nodes.get(j);
+                Fact out = analysis.newInitialFact(cfg);
+                analysis.transferNode(node, in, out);
+                in = flow(analysis, cfg, getOne(cfg.getOutEdgesOf(node)), out);
+            }
+            return analysis.transferNode(nodes.get(last), in,
+                    result.getOutFact(nodes.get(last)));
+        }));
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        boolean meetInPlace = analysis.isMeetInPlace();
+        BlockCFG<Node> blockCFG = getBlockCFG(result);
+        strategy.iterate(blockCFG, false, countVisits(block -> {
+            if (blockCFG.isExit(block)) {
+                return false;
+            }
+            Node last = block.getLast();
+            Fact out;
+            if (meetInPlace) {
+                out = result.getOutFact(last);
+            } else {
+                out = analysis.newInitialFact(cfg);
+                result.setOutFact(last, out);
+            }
+            for (Edge<Node> outEdge : cfg.getOutEdgesOf(last)) {
+                Fact succIn = result.getInFact(outEdge.getTarget());
+                if (analysis.needTransferEdge(outEdge)) {
+                    succIn = analysis.transferEdge(outEdge, succIn);
+                }
+                analysis.meetInto(succIn, out);
+            }
+            List<Node> nodes = block.getNodes();
+            for (int j = nodes.size() - 1; j > 0; --j) {
+                Node node = nodes.get(j);
+                Fact in = analysis.newInitialFact(cfg);
+                analysis.transferNode(node, in, out);
+                out = flow(analysis, cfg, getOne(cfg.getInEdgesOf(node)), in);
+            }
+            return analysis.transferNode(nodes.get(0),
+                    result.getInFact(nodes.get(0)), out);
+        }));
+    }
+
+    /**
+     * Flows given fact along an edge inside a block.
+     *
+     * @return a new fact, which is the out (in) fact of the source (target)
+     * of the edge met into a new initial fact in forward (backward) analysis.
+     */
+    static <Node, Fact> Fact flow(DataflowAnalysis<Node, Fact> analysis,
+                                  CFG<Node> cfg, Edge<Node> edge, Fact fact) {
+        if (analysis.needTransferEdge(edge)) {
+            fact = analysis.transferEdge(edge, fact);
+        }
+        Fact result = analysis.newInitialFact(cfg);
+        analysis.meetInto(fact, result);
+        return result;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.ConfigException;
+
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/**
+ * Strategies which decide the order in which solvers process the nodes
+ * of CFGs until reaching the fixed point.
+ */
+enum IterationStrategy {
+
+    /**
+     * Processes the nodes in a work list in order of their priorities given
+     * by {@link NodeOrder}, and re-processes only the successors (predecessors)
+     * of the nodes whose outputs changed in forward (backward) analysis.
+     */
+    WORK_LIST("work-list") {
+        @Override
+        <Node> void iterate(CFG<Node> cfg, boolean isForward, Predicate<Node> process) {
+            NodeOrder<Node> order = NodeOrder.of(cfg, isForward);
+            // the work list is a set of priorities, and the node with
+            // the smallest priority is always processed first
+            BitSet workList = new BitSet(order.size());
+            workList.set(0, order.size());
+            for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+                workList.clear(i);
+                Node node = order.getNode(i);
+                if (process.test(node)) {
+                    for (Node next : isForward ?
+                            cfg.getSuccsOf(node) : cfg.getPredsOf(node)) {
+                        workList.set(order.getPriority(next));
+                    }
+                }
+            }
+        }
+    },
+
+    /**
+     * Processes the nodes in {@link WeakTopologicalOrder}, which stabilizes
+     * inner loops before outer ones.
+     */
+    WTO("wto") {
+        @Override
+        <Node> void iterate(CFG<Node> cfg, boolean isForward, Predicate<Node> process) {
+            WeakTopologicalOrder.of(cfg, isForward).iterate(process);
+        }
+    };
+
+    private final String name;
+
+    IterationStrategy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Processes the nodes of given CFG until reaching the fixed point.
+     *
+     * @param process processes a node, and returns true if the output of
+     *                the node changed, otherwise false.
+     */
+    abstract <Node> void iterate(CFG<Node> cfg, boolean isForward, Predicate<Node> process);
+
+    /**
+     * @return the strategy of given name; if name is null,
+     * returns the default strategy {@link #WORK_LIST}.
+     */
+    static IterationStrategy of(String name) {
+        if (name == null) {
+            return WORK_LIST;
+        }
+        for (IterationStrategy strategy : values()) {
+            if (strategy.name.equals(name)) {
+                return strategy;
+            }
+        }
+        throw new ConfigException("Unknown iteration strategy: " + name);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.DelegatingDataflowAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+/**
+ * View of an analysis which counts the calls to its functions
+ * in {@link SolverMetrics}. Solvers only use this view when metrics
+ * are requested, so that normal solving pays nothing for the counting.
+ */
+class MeteredDataflowAnalysis<Node, Fact>
+        extends DelegatingDataflowAnalysis<Node, Fact> {
+
+    private final SolverMetrics metrics;
+
+    MeteredDataflowAnalysis(DataflowAnalysis<Node, Fact> delegate,
+                            SolverMetrics metrics) {
+        super(delegate);
+        this.metrics = metrics;
+    }
+
+    SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public DataflowAnalysis<Node, Fact> specialize(CFG<Node> cfg) {
+        DataflowAnalysis<Node, Fact> specialized = delegate.specialize(cfg);
+        return specialized == delegate ? this :
+                new MeteredDataflowAnalysis<>(specialized, metrics);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        metrics.meet();
+        delegate.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Node node, Fact in, Fact out) {
+        boolean changed = delegate.transferNode(node, in, out);
+        metrics.transfer(changed);
+        return changed;
+    }
+
+    @Override
+    public Fact transferEdge(Edge<Node> edge, Fact nodeFact) {
+        metrics.transferEdge();
+        return delegate.transferEdge(edge, nodeFact);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.Indexable;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.graph.Graph;
+import pascal.taie.util.graph.ReverseGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns priorities to the nodes of a CFG, which decide the order
+ * in which a work-list solver processes the nodes.
+ * <p>
+ * For forward analyses, nodes are ordered in reverse postorder of the CFG,
+ * so that a node is processed after all its predecessors (except the ones
+ * reaching it via back edges). For backward analyses, nodes are ordered in
+ * reverse postorder of the reverse CFG, i.e., successors come first.
+ * Nodes that are unreachable from the entry (exit) node are also included.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class NodeOrder<Node> {
+
+    /**
+     * Nodes sorted by their priorities.
+     */
+    private final List<Node> nodes;
+
+    /**
+     * Priorities of the nodes, indexed by the nodes if they have
+     * dense indexes, otherwise null.
+     */
+    private final int[] indexedPriorities;
+
+    private final Map<Node, Integer> priorities;
+
+    private NodeOrder(List<Node> nodes, boolean isIndexed) {
+        this.nodes = nodes;
+        if (isIndexed) {
+            this.indexedPriorities = new int[nodes.size()];
+            this.priorities = null;
+            for (int i = 0; i < nodes.size(); ++i) {
+                indexedPriorities[((Indexable) nodes.get(i)).getIndex()] = i;
+            }
+        } else {
+            this.indexedPriorities = null;
+            this.priorities = Maps.newMap(nodes.size());
+            for (int i = 0; i < nodes.size(); ++i) {
+                priorities.put(nodes.get(i), i);
+            }
+        }
+    }
+
+    /**
+     * @return the node order for solving given CFG in given direction.
+     */
+    static <Node> NodeOrder<Node> of(CFG<Node> cfg, boolean isForward) {
+        boolean isIndexed = IndexedDataflowResult.isApplicable(cfg);
+        if (isForward) {
+            return new NodeOrder<>(
+                    reversePostOrder(cfg, cfg.getEntry()), isIndexed);
+        } else {
+            return new NodeOrder<>(reversePostOrder(
+                    new ReverseGraph<>(cfg), cfg.getExit()), isIndexed);
+        }
+    }
+
+    /**
+     * Computes the reverse postorder of the nodes in given graph by
+     * depth-first search starting from root. The search is iterative,
+     * so that it does not overflow the stack on large graphs.
+     */
+    private static <Node> List<Node> reversePostOrder(Graph<Node> graph, Node root) {
+        List<Node> postOrder = new ArrayList<>(graph.getNumberOfNodes());
+        Set<Node> visited = Sets.newSet(graph.getNumberOfNodes());
+        Deque<Node> nodeStack = new ArrayDeque<>();
+        Deque<Iterator<Node>> succStack = new ArrayDeque<>();
+        Iterator<Node> roots = graph.iterator();
+        Node next = root;
+        while (next != null) {
+            visited.add(next);
+            nodeStack.push(next);
+            succStack.push(graph.getSuccsOf(next).iterator());
+            while (!nodeStack.isEmpty()) {
+                Iterator<Node> succs = succStack.peek();
+                Node succ = null;
+                while (succs.hasNext()) {
+                    Node n = succs.next();
+                    if (visited.add(n)) {
+                        succ = n;
+                        break;
+                    }
+                }
+                if (succ != null) {
+                    nodeStack.push(succ);
+                    succStack.push(graph.getSuccsOf(succ).iterator());
+                } else {
+                    postOrder.add(nodeStack.pop());
+                    succStack.pop();
+                }
+            }
+            // continue with the nodes that are not reachable from root
+            next = null;
+            while (roots.hasNext()) {
+                Node n = roots.next();
+                if (!visited.contains(n)) {
+                    next = n;
+                    break;
+                }
+            }
+        }
+        Collections.reverse(postOrder);
+        return postOrder;
+    }
+
+    /**
+     * @return the number of nodes in this order.
+     */
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the node of given priority.
+     */
+    Node getNode(int priority) {
+        return nodes.get(priority);
+    }
+
+    /**
+     * @return the priority of given node. The smaller the number is,
+     * the earlier the node should be processed.
+     */
+    int getPriority(Node node) {
+        return indexedPriorities != null ?
+                indexedPriorities[((Indexable) node).getIndex()] :
+                priorities.get(node);
+    }
+}
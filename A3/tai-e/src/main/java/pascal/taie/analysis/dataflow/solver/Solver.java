@@ -23,10 +23,15 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
-import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -45,12 +50,42 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * The resulting solver works for any {@link DataflowAnalysis}, and it
+     * is stateless, thus it can solve multiple CFGs concurrently.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Creates a new solver for given analysis as configured by given options.
+     * <ul>
+     *     <li>If option {@code block-level} is true, the solver propagates
+     *     facts between basic blocks, and the facts of the nodes inside
+     *     blocks are recomputed on demand (see {@link BlockSolver}).</li>
+     *     <li>Option {@code iteration} selects the order of processing nodes:
+     *     {@code work-list} (default) for a priority work list, or {@code wto}
+     *     for weak topological order (see {@link IterationStrategy}).</li>
+     * </ul>
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        IterationStrategy strategy = IterationStrategy.of(
+                (String) options.get("iteration"));
+        if (options.getBooleanOrDefault("block-level", false)) {
+            return new BlockSolver<>(analysis, strategy);
+        } else {
+            return new WorkListSolver<>(analysis, strategy);
+        }
+    }
+
+    /**
+     * @return a solver of the same kind as this solver for given analysis.
+     */
+    protected abstract Solver<Node, Fact> withAnalysis(
+            DataflowAnalysis<Node, Fact> analysis);
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -58,18 +93,132 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        DataflowAnalysis<Node, Fact> specialized = analysis.specialize(cfg);
+        if (specialized != analysis) {
+            // the specialized analysis is bound to cfg, and its
+            // specialize() is expected to return itself
+            return withAnalysis(specialized).solve(cfg);
+        }
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
         return result;
     }
 
+    /**
+     * Starts this solver on the given CFG, and records the counters of
+     * solving in given metrics. Solving without metrics, i.e., by
+     * {@link #solve(CFG)}, does not pay for the counting.
+     *
+     * @param cfg     control-flow graph where the analysis is performed on
+     * @param metrics the metrics where the counters are recorded
+     * @return the analysis result
+     */
+    public DataflowResult<Node, Fact> solve(CFG<Node> cfg, SolverMetrics metrics) {
+        long start = System.nanoTime();
+        DataflowResult<Node, Fact> result = withAnalysis(
+                new MeteredDataflowAnalysis<>(analysis, metrics)).solve(cfg);
+        metrics.addTime(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * @return given function which processes the nodes taken from work list,
+     * wrapped to count the visits if this solver is solving with metrics.
+     */
+    protected <N> Predicate<N> countVisits(Predicate<N> process) {
+        if (analysis instanceof MeteredDataflowAnalysis<Node, Fact> metered) {
+            SolverMetrics metrics = metered.getMetrics();
+            return node -> {
+                metrics.visit();
+                return process.test(node);
+            };
+        }
+        return process;
+    }
+
+    /**
+     * Repairs given result after the IR of the CFG is edited, so that
+     * it becomes the fixed point for the edited CFG. The work list is
+     * seeded with only the changed nodes, and the facts of other nodes
+     * are recomputed only when the facts of their neighbors change, thus
+     * the cost is proportional to the part of the result affected by the
+     * edits, rather than to the size of the CFG. The loops around the edits
+     * are re-solved from initial facts, see {@link WorkListSolver}.
+     *
+     * @param cfg     the CFG of the edited IR. The nodes which are not changed
+     *                must keep their identities, but may be re-indexed, e.g.,
+     *                when statements are inserted or removed.
+     * @param result  the result solved by this solver before the edits,
+     *                which is updated in place
+     * @param changed the nodes which are added or modified,
+     *                or whose in/out edges changed
+     * @throws UnsupportedOperationException if this solver
+     *                                       does not support repairing
+     */
+    public void resolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                        Collection<Node> changed) {
+        DataflowAnalysis<Node, Fact> specialized = analysis.specialize(cfg);
+        if (specialized != analysis) {
+            withAnalysis(specialized).resolve(cfg, result, changed);
+            return;
+        }
+        if (result instanceof IndexedDataflowResult<Node, Fact> indexed) {
+            indexed.reindex(cfg);
+        }
+        boolean isForward = analysis.isForward();
+        Node boundary = isForward ? cfg.getEntry() : cfg.getExit();
+        Fact oldBoundaryFact = isForward ?
+                result.getOutFact(boundary) : result.getInFact(boundary);
+        Set<Node> changedNodes = Sets.newHybridSet(changed);
+        Set<Node> dirtyNodes = Sets.newHybridSet();
+        for (Node node : cfg) {
+            // the added nodes, and the entry/exit nodes of the rebuilt CFG,
+            // have no facts yet
+            if (result.getInFact(node) == null || result.getOutFact(node) == null) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+                dirtyNodes.add(node);
+            }
+        }
+        Fact boundaryFact = analysis.newBoundaryFact(cfg);
+        if (!boundaryFact.equals(oldBoundaryFact)) {
+            result.setInFact(boundary, boundaryFact);
+            result.setOutFact(boundary, boundaryFact);
+            // if the boundary node is rebuilt, its old fact is unknown,
+            // and is assumed to be derived from the same method
+            (oldBoundaryFact == null ? dirtyNodes : changedNodes).addAll(
+                    isForward ? cfg.getSuccsOf(boundary) : cfg.getPredsOf(boundary));
+        }
+        changedNodes.remove(boundary);
+        dirtyNodes.remove(boundary);
+        if (!changedNodes.isEmpty() || !dirtyNodes.isEmpty()) {
+            doResolve(cfg, result, changedNodes, dirtyNodes);
+        }
+    }
+
+    /**
+     * Re-solves the nodes affected by given nodes until reaching the
+     * fixed point. All nodes of the CFG have facts, and the ones of
+     * the nodes affected by given nodes may be stale.
+     *
+     * @param changed the nodes whose transfers or edges changed, thus
+     *                their old facts may be unrelated to the new ones
+     * @param dirty   the nodes whose transfers and edges are unchanged,
+     *                but their neighbors' facts may have changed
+     */
+    protected void doResolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                             Collection<Node> changed, Collection<Node> dirty) {
+        throw new UnsupportedOperationException(
+                getClass().getSimpleName() + " does not support repairing results");
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -78,19 +227,39 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * @return a new result for given CFG. If the nodes of the CFG have dense
+     * indexes (e.g., the statements of an IR), the facts are stored in arrays
+     * indexed by the nodes, otherwise in maps.
+     */
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return IndexedDataflowResult.isApplicable(cfg) ?
+                new IndexedDataflowResult<>(cfg.getNumberOfNodes()) :
+                new DataflowResult<>();
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis instanceof ConstantPropagation)
-            result.setInFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        Node entry = cfg.getEntry();
+        Fact entryFact = analysis.newBoundaryFact(cfg);
+        result.setInFact(entry, entryFact);
+        result.setOutFact(entry, entryFact);
+        for (Node node : cfg) {
+            if (!cfg.isEntry(node)) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
+            }
+        }
     }
 
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis instanceof LiveVariableAnalysis) {
-            Node e = cfg.getExit();
-            for (Node n : cfg.getNodes()) {
-                if (n.equals(e))
-                    result.setInFact(n, analysis.newBoundaryFact(cfg));
-                else
-                    result.setInFact(n, analysis.newInitialFact());
+        Node exit = cfg.getExit();
+        Fact exitFact = analysis.newBoundaryFact(cfg);
+        result.setInFact(exit, exitFact);
+        result.setOutFact(exit, exitFact);
+        for (Node node : cfg) {
+            if (!cfg.isExit(node)) {
+                result.setInFact(node, analysis.newInitialFact(cfg));
+                result.setOutFact(node, analysis.newInitialFact(cfg));
             }
         }
     }
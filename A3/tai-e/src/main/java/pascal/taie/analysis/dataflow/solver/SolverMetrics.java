@@ -0,0 +1,205 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.Locale;
+
+/**
+ * Counters of a data-flow solver for solving one CFG, which help to find
+ * out why the solver is slow to converge on a method.
+ * See {@link Solver#solve(CFG, SolverMetrics)}.
+ */
+public class SolverMetrics {
+
+    /**
+     * Header of the CSV rows given by {@link #toCSV()}.
+     */
+    public static final String CSV_HEADER =
+            "method,analysis,nodes,visits,transfers,changed,meets,edge-transfers,time-ns";
+
+    private final String method;
+
+    private final String analysis;
+
+    private final int nodes;
+
+    private long visits;
+
+    private long transfers;
+
+    private long changed;
+
+    private long meets;
+
+    private long edgeTransfers;
+
+    private long time;
+
+    /**
+     * @param analysis ID of the analysis being solved
+     * @param cfg      the CFG being solved
+     */
+    public SolverMetrics(String analysis, CFG<?> cfg) {
+        this.method = String.valueOf(cfg.getIR().getMethod());
+        this.analysis = analysis;
+        this.nodes = cfg.getNumberOfNodes();
+    }
+
+    /**
+     * @return the key of the metrics of given analysis in the results of IR.
+     */
+    public static String getKey(String analysis) {
+        return analysis + "-metrics";
+    }
+
+    void visit() {
+        ++visits;
+    }
+
+    void transfer(boolean isChanged) {
+        ++transfers;
+        if (isChanged) {
+            ++changed;
+        }
+    }
+
+    void meet() {
+        ++meets;
+    }
+
+    void transferEdge() {
+        ++edgeTransfers;
+    }
+
+    void addTime(long nanos) {
+        time += nanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    /**
+     * @return the number of nodes in the CFG.
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of times that the solver took a node
+     * (or a basic block for block-level solvers) from the work list.
+     */
+    public long getVisits() {
+        return visits;
+    }
+
+    /**
+     * @return the number of calls to the node transfer function.
+     */
+    public long getTransfers() {
+        return transfers;
+    }
+
+    /**
+     * @return the number of node transfers which changed their output facts.
+     */
+    public long getChanged() {
+        return changed;
+    }
+
+    /**
+     * @return the ratio of node transfers which changed their output facts.
+     */
+    public double getChangedRatio() {
+        return transfers == 0 ? 0 : (double) changed / transfers;
+    }
+
+    /**
+     * @return the number of calls to the meet function.
+     */
+    public long getMeets() {
+        return meets;
+    }
+
+    /**
+     * @return the number of calls to the edge transfer function.
+     */
+    public long getEdgeTransfers() {
+        return edgeTransfers;
+    }
+
+    /**
+     * @return the wall time of solving the CFG, in nanoseconds.
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the metrics as a CSV row, whose columns are
+     * given by {@link #CSV_HEADER}.
+     */
+    public String toCSV() {
+        return String.join(",", quoteCSV(method), quoteCSV(analysis),
+                String.valueOf(nodes), String.valueOf(visits),
+                String.valueOf(transfers), String.valueOf(changed),
+                String.valueOf(meets), String.valueOf(edgeTransfers),
+                String.valueOf(time));
+    }
+
+    private static String quoteCSV(String s) {
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * @return the metrics as a JSON object.
+     */
+    public String toJSON() {
+        return String.format(Locale.ROOT, "{\"method\":%s,\"analysis\":%s,\"nodes\":%d," +
+                        "\"visits\":%d,\"transfers\":%d,\"changed\":%d," +
+                        "\"changedRatio\":%.4f,\"meets\":%d," +
+                        "\"edgeTransfers\":%d,\"timeNs\":%d}",
+                quoteJSON(method), quoteJSON(analysis), nodes, visits,
+                transfers, changed, getChangedRatio(), meets,
+                edgeTransfers, time);
+    }
+
+    private static String quoteJSON(String s) {
+        return '"' + s.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: nodes=%d, visits=%d, transfers=%d" +
+                        " (%.1f%% changed), meets=%d, edge-transfers=%d, time=%dns",
+                analysis, method, nodes, visits, transfers,
+                100 * getChangedRatio(), meets, edgeTransfers, time);
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Weak topological ordering (WTO) of the nodes of a CFG, as introduced by
+ * Bourdoncle in "Efficient chaotic iteration strategies with widenings".
+ * <p>
+ * A WTO is a sequence of elements, where each element is either a node or
+ * a component, i.e., a head node followed by a WTO of the other nodes of
+ * the component. Components correspond to (nested) loops: any cycle of the
+ * CFG goes through the head of some component containing the cycle.
+ * Thus, iterating the components from the inside out, and stabilizing each
+ * component before leaving it, reaches the fixed point of the CFG.
+ * <p>
+ * The components are computed by decomposing strongly connected components
+ * recursively: the head of a component is its node that comes first in
+ * reverse postorder (see {@link NodeOrder}), and the rest of the component
+ * is decomposed again after removing the head. The recursion depth is
+ * bounded by the loop nesting depth, and the search for strongly connected
+ * components is iterative, so that it does not overflow the stack.
+ *
+ * @param <Node> type of CFG nodes
+ */
+class WeakTopologicalOrder<Node> {
+
+    private final NodeOrder<Node> order;
+
+    /**
+     * Successors of the nodes in the direction of the analysis,
+     * where nodes are represented by their priorities in {@link #order}.
+     */
+    private final int[][] succs;
+
+    private List<Element> elements;
+
+    // working arrays of Tarjan's algorithm, indexed by priorities
+
+    private final int[] marks;
+
+    private int mark;
+
+    private final int[] dfsIndexes;
+
+    private final int[] lowLinks;
+
+    private final int[] edgePositions;
+
+    private final boolean[] onStack;
+
+    private WeakTopologicalOrder(CFG<Node> cfg, boolean isForward) {
+        order = NodeOrder.of(cfg, isForward);
+        int size = order.size();
+        succs = new int[size][];
+        for (int i = 0; i < size; ++i) {
+            Node node = order.getNode(i);
+            Set<Node> nexts = isForward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+            succs[i] = nexts.stream().mapToInt(order::getPriority).toArray();
+        }
+        marks = new int[size];
+        dfsIndexes = new int[size];
+        lowLinks = new int[size];
+        edgePositions = new int[size];
+        onStack = new boolean[size];
+    }
+
+    /**
+     * @return the WTO of given CFG in given direction.
+     */
+    static <Node> WeakTopologicalOrder<Node> of(CFG<Node> cfg, boolean isForward) {
+        WeakTopologicalOrder<Node> wto = new WeakTopologicalOrder<>(cfg, isForward);
+        wto.elements = wto.decompose(wto.allNodes());
+        return wto;
+    }
+
+    /**
+     * @return the outermost components of the WTO of given CFG, i.e.,
+     * the strongly connected components which contain cycles, mapped from
+     * each node in them. The components are not decomposed further.
+     */
+    static <Node> Map<Node, List<Node>> loopsOf(CFG<Node> cfg, boolean isForward) {
+        WeakTopologicalOrder<Node> wto = new WeakTopologicalOrder<>(cfg, isForward);
+        Map<Node, List<Node>> loops = Maps.newMap();
+        for (int[] scc : wto.computeSCCs(wto.allNodes())) {
+            if (scc.length > 1 || wto.hasSelfLoop(scc[0])) {
+                List<Node> loop = Arrays.stream(scc)
+                        .mapToObj(wto.order::getNode)
+                        .toList();
+                loop.forEach(node -> loops.put(node, loop));
+            }
+        }
+        return loops;
+    }
+
+    private int[] allNodes() {
+        int[] all = new int[order.size()];
+        Arrays.setAll(all, i -> i);
+        return all;
+    }
+
+    /**
+     * Processes the nodes in this order until all components are stable.
+     *
+     * @param process processes a node, and returns true if the output of
+     *                the node changed, otherwise false.
+     */
+    void iterate(Predicate<Node> process) {
+        for (Element element : elements) {
+            iterate(element, process);
+        }
+    }
+
+    private void iterate(Element element, Predicate<Node> process) {
+        Node head = order.getNode(element.head);
+        process.test(head);
+        if (element.body != null) {
+            // the component is stable when its head does not change
+            // after all the other nodes are processed
+            do {
+                for (Element e : element.body) {
+                    iterate(e, process);
+                }
+            } while (process.test(head));
+        }
+    }
+
+    /**
+     * Decomposes the subgraph induced by given nodes into WTO elements.
+     *
+     * @param nodes the nodes sorted by their priorities
+     */
+    private List<Element> decompose(int[] nodes) {
+        List<int[]> sccs = computeSCCs(nodes);
+        List<Element> result = new ArrayList<>(sccs.size());
+        for (int[] scc : sccs) {
+            int head = scc[0];
+            if (scc.length == 1 && !hasSelfLoop(head)) {
+                result.add(new Element(head, null));
+            } else {
+                Arrays.sort(scc);
+                head = scc[0];
+                List<Element> body = decompose(Arrays.copyOfRange(scc, 1, scc.length));
+                result.add(new Element(head, body));
+            }
+        }
+        return result;
+    }
+
+    private boolean hasSelfLoop(int node) {
+        for (int succ : succs[node]) {
+            if (succ == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the strongly connected components of the subgraph induced
+     * by given nodes with Tarjan's algorithm.
+     *
+     * @return the components in topological order.
+     */
+    private List<int[]> computeSCCs(int[] nodes) {
+        int currentMark = ++mark;
+        for (int node : nodes) {
+            marks[node] = currentMark;
+            dfsIndexes[node] = -1;
+            edgePositions[node] = 0;
+        }
+        List<int[]> sccs = new ArrayList<>();
+        int[] callStack = new int[nodes.length];
+        int[] sccStack = new int[nodes.length];
+        int callTop = 0, sccTop = 0, dfsIndex = 0;
+        for (int root : nodes) {
+            if (dfsIndexes[root] != -1) {
+                continue;
+            }
+            dfsIndexes[root] = lowLinks[root] = dfsIndex++;
+            callStack[callTop++] = root;
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+            while (callTop > 0) {
+                int node = callStack[callTop - 1];
+                int[] nodeSuccs = succs[node];
+                if (edgePositions[node] < nodeSuccs.length) {
+                    int succ = nodeSuccs[edgePositions[node]++];
+                    if (marks[succ] != currentMark) {
+                        continue;
+                    }
+                    if (dfsIndexes[succ] == -1) {
+                        dfsIndexes[succ] = lowLinks[succ] = dfsIndex++;
+                        callStack[callTop++] = succ;
+                        sccStack[sccTop++] = succ;
+                        onStack[succ] = true;
+                    } else if (onStack[succ]) {
+                        lowLinks[node] = Math.min(lowLinks[node], dfsIndexes[succ]);
+                    }
+                } else {
+                    --callTop;
+                    if (lowLinks[node] == dfsIndexes[node]) {
+                        int start = sccTop;
+                        do {
+                            onStack[sccStack[--start]] = false;
+                        } while (sccStack[start] != node);
+                        sccs.add(Arrays.copyOfRange(sccStack, start, sccTop));
+                        sccTop = start;
+                    }
+                    if (callTop > 0) {
+                        int caller = callStack[callTop - 1];
+                        lowLinks[caller] = Math.min(lowLinks[caller], lowLinks[node]);
+                    }
+                }
+            }
+        }
+        // Tarjan's algorithm finds components in reverse topological order
+        Collections.reverse(sccs);
+        return sccs;
+    }
+
+    @Override
+    public String toString() {
+        return toString(elements);
+    }
+
+    private String toString(List<Element> elements) {
+        return elements.stream()
+                .map(e -> e.body == null ?
+                        order.getNode(e.head).toString() :
+                        "(" + order.getNode(e.head) +
+                                (e.body.isEmpty() ? "" : " " + toString(e.body)) + ")")
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * An element of WTO, i.e., a node or a component.
+     */
+    private static class Element {
+
+        /**
+         * The node, or the head of the component.
+         */
+        private final int head;
+
+        /**
+         * The WTO of the component without its head,
+         * or null if this element is a node.
+         */
+        private final List<Element> body;
+
+        private Element(int head, List<Element> body) {
+            this.head = head;
+            this.body = body;
+        }
+    }
+}
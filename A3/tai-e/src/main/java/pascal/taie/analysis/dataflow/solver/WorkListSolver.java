@@ -23,65 +23,275 @@
 package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
-import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
-import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.collection.Sets;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Work-list solver which processes the nodes of CFGs in the order decided
+ * by an {@link IterationStrategy}: by default, nodes are processed in order
+ * of their priorities given by {@link NodeOrder}, and only the successors
+ * (predecessors) of the nodes whose out (in) facts changed are re-processed
+ * in forward (backward) analysis.
+ * <p>
+ * This solver works for any {@link DataflowAnalysis}: the iteration order
+ * is decided by {@link DataflowAnalysis#isForward()}, and whether the facts
+ * at confluences are accumulated in place or recomputed is decided by
+ * {@link DataflowAnalysis#isMeetInPlace()}.
+ */
 class WorkListSolver<Node, Fact> extends Solver<Node, Fact> {
 
+    private final IterationStrategy strategy;
+
     WorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        this(analysis, IterationStrategy.WORK_LIST);
+    }
+
+    WorkListSolver(DataflowAnalysis<Node, Fact> analysis, IterationStrategy strategy) {
         super(analysis);
+        this.strategy = strategy;
+    }
+
+    @Override
+    protected Solver<Node, Fact> withAnalysis(DataflowAnalysis<Node, Fact> analysis) {
+        return new WorkListSolver<>(analysis, strategy);
     }
 
     @Override
     protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis instanceof ConstantPropagation){
-            boolean changed = true;
-            while (changed){
-                changed = false;
-                for (Node n : cfg){
-                    Fact inFact;
-                    if (!n.equals(cfg.getEntry())) {
-                        inFact = analysis.newInitialFact();
-                        for (Node p : cfg.getPredsOf(n)) {
-                            analysis.meetInto(result.getOutFact(p), inFact);
-                        }
-                        result.setInFact(n, inFact);
-                    } else {
-                        inFact = result.getInFact(n);
-                    }
-                    if (result.getOutFact(n) == null){
-                        Fact outFact = analysis.newInitialFact();
-                        analysis.meetInto(inFact, outFact);
-                        result.setOutFact(n, outFact);
-                    }
-                    changed |= analysis.transferNode(n, inFact, result.getOutFact(n));
-                }
-            }
-        }
+        strategy.iterate(cfg, true, countVisits(forwardProcessor(cfg, result)));
     }
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        if (analysis instanceof LiveVariableAnalysis) {
-            boolean changed = true;
-            Node exit = cfg.getExit();
-            while (changed) {
-                changed = false;
-                for (Node node : cfg) {
-                    if (node.equals(exit)) continue;
-                    Fact outFact = result.getOutFact(node);
-                    if (outFact == null) {
-                        outFact = analysis.newInitialFact();
+        strategy.iterate(cfg, false, countVisits(backwardProcessor(cfg, result)));
+    }
+
+    @Override
+    protected void doResolve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                             Collection<Node> changed, Collection<Node> dirty) {
+        new Repair(cfg, result).run(changed, dirty);
+    }
+
+    private Predicate<Node> forwardProcessor(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        boolean meetInPlace = analysis.isMeetInPlace();
+        return node -> {
+            if (cfg.isEntry(node)) {
+                return false;
+            }
+            Fact in;
+            if (meetInPlace) {
+                in = result.getInFact(node);
+            } else {
+                in = analysis.newInitialFact(cfg);
+                result.setInFact(node, in);
+            }
+            meetPredsInto(cfg, result, node, in);
+            return analysis.transferNode(node, in, result.getOutFact(node));
+        };
+    }
+
+    private Predicate<Node> backwardProcessor(
+            CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        boolean meetInPlace = analysis.isMeetInPlace();
+        return node -> {
+            if (cfg.isExit(node)) {
+                return false;
+            }
+            Fact out;
+            if (meetInPlace) {
+                out = result.getOutFact(node);
+            } else {
+                out = analysis.newInitialFact(cfg);
+                result.setOutFact(node, out);
+            }
+            meetSuccsInto(cfg, result, node, out);
+            return analysis.transferNode(node, result.getInFact(node), out);
+        };
+    }
+
+    private void meetPredsInto(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Node node, Fact in) {
+        for (Edge<Node> inEdge : cfg.getInEdgesOf(node)) {
+            Fact predOut = result.getOutFact(inEdge.getSource());
+            if (analysis.needTransferEdge(inEdge)) {
+                predOut = analysis.transferEdge(inEdge, predOut);
+            }
+            analysis.meetInto(predOut, in);
+        }
+    }
+
+    private void meetSuccsInto(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                               Node node, Fact out) {
+        for (Edge<Node> outEdge : cfg.getOutEdgesOf(node)) {
+            Fact succIn = result.getInFact(outEdge.getTarget());
+            if (analysis.needTransferEdge(outEdge)) {
+                succIn = analysis.transferEdge(outEdge, succIn);
+            }
+            analysis.meetInto(succIn, out);
+        }
+    }
+
+    /**
+     * Repairs a result in the priority work list. Each node taken from
+     * the work list is recomputed from new facts, as its old facts may be
+     * too large for the edited CFG, and its successors (predecessors) in
+     * forward (backward) analysis are re-processed only if its output changed.
+     * <p>
+     * Around a loop, old facts may justify themselves: if a definition in
+     * or before the loop is removed, the facts flowing back along the loop
+     * still carry it. Thus, the loops (see {@link WeakTopologicalOrder#loopsOf})
+     * containing or following changed nodes, or following a node whose output
+     * does not grow from its old output, are reset to initial facts and
+     * re-solved. The other nodes are repaired from their old facts.
+     */
+    private class Repair {
+
+        private final CFG<Node> cfg;
+
+        private final DataflowResult<Node, Fact> result;
+
+        private final boolean isForward;
+
+        private final NodeOrder<Node> order;
+
+        private final BitSet workList;
+
+        /**
+         * The loops of the CFG, computed when a loop has to be reset.
+         */
+        private Map<Node, List<Node>> loops;
+
+        private Repair(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+            this.cfg = cfg;
+            this.result = result;
+            this.isForward = analysis.isForward();
+            this.order = NodeOrder.of(cfg, isForward);
+            this.workList = new BitSet(order.size());
+        }
+
+        private void run(Collection<Node> changed, Collection<Node> dirty) {
+            // the old outputs of the changed nodes are unrelated to the new
+            // ones, thus their neighbors are always re-processed, and the
+            // loops around them are reset, as the old facts of the loops
+            // may keep the information the edits removed
+            for (Node node : changed) {
+                resetLoopOf(node);
+                workList.set(order.getPriority(node));
+                for (Node next : getNexts(node)) {
+                    resetLoopOf(next);
+                    workList.set(order.getPriority(next));
+                }
+            }
+            dirty.forEach(node -> workList.set(order.getPriority(node)));
+            Predicate<Node> process = countVisits(this::process);
+            for (int i = workList.nextSetBit(0); i >= 0; i = workList.nextSetBit(0)) {
+                workList.clear(i);
+                Node node = order.getNode(i);
+                if (process.test(node)) {
+                    for (Node next : getNexts(node)) {
+                        workList.set(order.getPriority(next));
                     }
-                    for (Node s : cfg.getSuccsOf(node)) {
-                        analysis.meetInto(result.getInFact(s), outFact);
+                }
+            }
+        }
+
+        /**
+         * Recomputes the facts of given node.
+         *
+         * @return true if the output of the node changed, otherwise false.
+         */
+        private boolean process(Node node) {
+            if (isForward ? cfg.isEntry(node) : cfg.isExit(node)) {
+                return false;
+            }
+            Fact oldOutput = isForward ?
+                    result.getOutFact(node) : result.getInFact(node);
+            Fact output = analysis.newInitialFact(cfg);
+            if (isForward) {
+                Fact in = analysis.newInitialFact(cfg);
+                meetPredsInto(cfg, result, node, in);
+                result.setInFact(node, in);
+                result.setOutFact(node, output);
+                analysis.transferNode(node, in, output);
+            } else {
+                Fact out = analysis.newInitialFact(cfg);
+                meetSuccsInto(cfg, result, node, out);
+                result.setOutFact(node, out);
+                result.setInFact(node, output);
+                analysis.transferNode(node, output, out);
+            }
+            if (output.equals(oldOutput)) {
+                return false;
+            }
+            if (!isGrowing(oldOutput, output)) {
+                for (Node next : getNexts(node)) {
+                    resetLoopOf(next);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return true if new fact is the meet of old fact and itself,
+         * i.e., it only grows from old fact as in the iteration.
+         */
+        private boolean isGrowing(Fact oldFact, Fact newFact) {
+            Fact meet = analysis.newInitialFact(cfg);
+            analysis.meetInto(oldFact, meet);
+            analysis.meetInto(newFact, meet);
+            return meet.equals(newFact);
+        }
+
+        /**
+         * Resets the facts of the loop containing given node, if any,
+         * and adds the nodes of the loop to the work list. As the old
+         * outputs of the loop are dropped, the nodes after the loop are
+         * also added, and the loops right after the loop are also reset,
+         * as their old facts may be justified by the dropped outputs.
+         */
+        private void resetLoopOf(Node node) {
+            if (loops == null) {
+                loops = WeakTopologicalOrder.loopsOf(cfg, isForward);
+            }
+            List<Node> loop = loops.get(node);
+            if (loop == null) {
+                return;
+            }
+            // loops are identified by their first nodes
+            Set<Node> resetLoops = Sets.newHybridSet();
+            Deque<List<Node>> stack = new ArrayDeque<>();
+            resetLoops.add(loop.get(0));
+            stack.push(loop);
+            while (!stack.isEmpty()) {
+                for (Node n : stack.pop()) {
+                    result.setInFact(n, analysis.newInitialFact(cfg));
+                    result.setOutFact(n, analysis.newInitialFact(cfg));
+                    workList.set(order.getPriority(n));
+                    for (Node next : getNexts(n)) {
+                        workList.set(order.getPriority(next));
+                        List<Node> nextLoop = loops.get(next);
+                        if (nextLoop != null && resetLoops.add(nextLoop.get(0))) {
+                            stack.push(nextLoop);
+                        }
                     }
-                    result.setOutFact(node, outFact);
-                    changed |= analysis.transferNode(node, result.getInFact(node), outFact);
                 }
             }
         }
+
+        private Collection<Node> getNexts(Node node) {
+            return isForward ? cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+        }
     }
 }
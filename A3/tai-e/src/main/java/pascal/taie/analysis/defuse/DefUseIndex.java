@@ -0,0 +1,452 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.defuse;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of the definitions and uses of the variables in an IR, which is
+ * computed once per IR and stored as a result of the IR (see {@link #of(IR)}).
+ * Statements are represented by {@link Stmt#getIndex()}, and variables
+ * are represented by {@link Var#getIndex()}, so that all tables are
+ * compact int arrays.
+ * <p>
+ * Besides the variables defined and used by each statement, the index
+ * provides use-def and def-use chains, i.e., which definitions of a
+ * variable may reach a use of it, and vice versa.
+ * <p>
+ * All tables are computed when they are queried the first time: the
+ * variables of a statement are decoded when the statement is queried,
+ * and the sites and the chains are computed for all statements at once.
+ * Thus, the analyses which query only a few statements, e.g., when
+ * repairing results after the IR is edited, do not decode the whole IR.
+ * The entry node of the CFG is regarded as the definition of the initial
+ * values of all variables, e.g., the parameters.
+ */
+public class DefUseIndex {
+
+    public static final String ID = "def-use";
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Marks the statements which have not been decoded in {@link #defs}.
+     */
+    private static final int UNKNOWN = -2;
+
+    private final CFG<Stmt> cfg;
+
+    private final List<Stmt> stmts;
+
+    private final int entryIndex;
+
+    private final int varCount;
+
+    /**
+     * Index of the variable defined by each statement, or -1 if none,
+     * or {@link #UNKNOWN} if the statement has not been decoded.
+     */
+    private final int[] defs;
+
+    /**
+     * Indexes of the variables used by each statement, in ascending order,
+     * or null if the statement has not been decoded.
+     */
+    private final int[][] uses;
+
+    private volatile Sites sites;
+
+    private volatile Chains chains;
+
+    private DefUseIndex(CFG<Stmt> cfg) {
+        IR ir = cfg.getIR();
+        this.cfg = cfg;
+        stmts = ir.getStmts();
+        entryIndex = cfg.getEntry().getIndex();
+        varCount = ir.getVars().size();
+        defs = new int[stmts.size()];
+        Arrays.fill(defs, UNKNOWN);
+        uses = new int[stmts.size()][];
+    }
+
+    /**
+     * Decodes the variables defined and used by the statement of given index.
+     * Decoding a statement again yields the same tables.
+     */
+    private void decode(int stmtIndex) {
+        Stmt stmt = stmts.get(stmtIndex);
+        int[] vars = stmt.getUses()
+                .stream()
+                .filter(Var.class::isInstance)
+                .mapToInt(v -> ((Var) v).getIndex())
+                .sorted()
+                .distinct()
+                .toArray();
+        uses[stmtIndex] = vars.length == 0 ? EMPTY : vars;
+        defs[stmtIndex] = stmt.getDef()
+                .filter(Var.class::isInstance)
+                .map(v -> ((Var) v).getIndex())
+                .orElse(-1);
+    }
+
+    private static int[][] newTable(int[] sizes) {
+        int[][] table = new int[sizes.length][];
+        for (int i = 0; i < sizes.length; ++i) {
+            table[i] = sizes[i] == 0 ? EMPTY : new int[sizes[i]];
+        }
+        return table;
+    }
+
+    /**
+     * @return the index of given IR. The CFG of the IR must be available.
+     */
+    public static DefUseIndex of(IR ir) {
+        return of(ir.<CFG<Stmt>>getResult(CFGBuilder.ID));
+    }
+
+    /**
+     * @return the index of the IR of given CFG.
+     */
+    public static DefUseIndex of(CFG<Stmt> cfg) {
+        return cfg.getIR().getResult(ID, () -> new DefUseIndex(cfg));
+    }
+
+    /**
+     * @return the index of the entry node of the CFG, which is regarded
+     * as the definition of the initial values of all variables.
+     */
+    public int getEntryIndex() {
+        return entryIndex;
+    }
+
+    /**
+     * @return the index of the variable defined by the statement
+     * of given index, or -1 if the statement does not define a variable.
+     * Indexes beyond the IR, e.g., the ones of the entry and exit nodes
+     * of CFG, are treated as statements defining nothing.
+     */
+    public int getDef(int stmtIndex) {
+        if (stmtIndex >= defs.length) {
+            return -1;
+        }
+        if (defs[stmtIndex] == UNKNOWN) {
+            decode(stmtIndex);
+        }
+        return defs[stmtIndex];
+    }
+
+    /**
+     * @return the indexes of the variables used by the statement of given
+     * index, in ascending order. The returned array must not be modified.
+     * Indexes beyond the IR are treated as statements using nothing.
+     */
+    public int[] getUses(int stmtIndex) {
+        if (stmtIndex >= uses.length) {
+            return EMPTY;
+        }
+        if (uses[stmtIndex] == null) {
+            decode(stmtIndex);
+        }
+        return uses[stmtIndex];
+    }
+
+    /**
+     * @return the indexes of the statements defining the variable of given
+     * index, in ascending order. The returned array must not be modified.
+     */
+    public int[] getDefSites(int varIndex) {
+        return getSites().defSites[varIndex];
+    }
+
+    /**
+     * @return the indexes of the statements using the variable of given
+     * index, in ascending order. The returned array must not be modified.
+     */
+    public int[] getUseSites(int varIndex) {
+        return getSites().useSites[varIndex];
+    }
+
+    /**
+     * Use-def chain.
+     *
+     * @return the indexes of the definitions (statements, or the entry
+     * node for the initial value) of the variable which may reach
+     * the use of it at given statement, in ascending order.
+     * The returned array must not be modified.
+     * @throws IllegalArgumentException if the statement does not use the variable
+     */
+    public int[] getReachingDefs(int stmtIndex, int varIndex) {
+        int pos = Arrays.binarySearch(getUses(stmtIndex), varIndex);
+        if (pos < 0) {
+            throw new IllegalArgumentException("Statement " + stmtIndex +
+                    " does not use variable " + varIndex);
+        }
+        Chains c = getChains();
+        return c.useDefs[c.useOffsets[stmtIndex] + pos];
+    }
+
+    /**
+     * Def-use chain.
+     *
+     * @return the indexes of the statements whose uses of the variable
+     * may be reached by the definition at given statement (or the entry
+     * node), in ascending order. The returned array must not be modified.
+     * @throws IllegalArgumentException if the statement is neither the entry
+     *                                  node nor a definition of the variable
+     */
+    public int[] getReachedUses(int stmtIndex, int varIndex) {
+        Chains c = getChains();
+        int defId;
+        if (stmtIndex == entryIndex) {
+            defId = varIndex;
+        } else if (getDef(stmtIndex) == varIndex) {
+            defId = c.defIds[stmtIndex];
+        } else {
+            throw new IllegalArgumentException("Statement " + stmtIndex +
+                    " does not define variable " + varIndex);
+        }
+        return c.defUses[defId];
+    }
+
+    private Sites getSites() {
+        Sites s = sites;
+        if (s == null) {
+            synchronized (this) {
+                s = sites;
+                if (s == null) {
+                    sites = s = new Sites();
+                }
+            }
+        }
+        return s;
+    }
+
+    private Chains getChains() {
+        Chains c = chains;
+        if (c == null) {
+            synchronized (this) {
+                c = chains;
+                if (c == null) {
+                    chains = c = new Chains();
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Definition and use sites of the variables.
+     */
+    private class Sites {
+
+        /**
+         * Indexes of the statements defining each variable, in ascending order.
+         */
+        private final int[][] defSites;
+
+        /**
+         * Indexes of the statements using each variable, in ascending order.
+         */
+        private final int[][] useSites;
+
+        private Sites() {
+            int[] defCounts = new int[varCount];
+            int[] useCounts = new int[varCount];
+            for (int i = 0; i < defs.length; ++i) {
+                int def = getDef(i);
+                if (def != -1) {
+                    ++defCounts[def];
+                }
+                for (int var : getUses(i)) {
+                    ++useCounts[var];
+                }
+            }
+            defSites = newTable(defCounts);
+            useSites = newTable(useCounts);
+            // statements are visited in ascending order of indexes,
+            // thus the sites are sorted
+            Arrays.fill(defCounts, 0);
+            Arrays.fill(useCounts, 0);
+            for (int i = 0; i < defs.length; ++i) {
+                int def = getDef(i);
+                if (def != -1) {
+                    defSites[def][defCounts[def]++] = i;
+                }
+                for (int var : getUses(i)) {
+                    useSites[var][useCounts[var]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Use-def and def-use chains, computed variable by variable: from each
+     * definition of a variable, the CFG is walked forward until the variable
+     * is redefined, and the uses of the variable on the way are reached by
+     * the definition. Thus, besides the chains themselves, only the scratch
+     * space of one walk is allocated, instead of the facts of reaching
+     * definitions over all definitions at all statements.
+     * <p>
+     * A definition is identified by an int: the definition of the initial
+     * value of variable v (by the entry node) is v, and the definition
+     * at a statement s is (number of variables + k), where s is the k-th
+     * statement defining a variable.
+     */
+    private class Chains {
+
+        /**
+         * Definition id of each statement, or -1 if it defines nothing.
+         */
+        private final int[] defIds;
+
+        /**
+         * Offset of the uses of each statement in {@link #useDefs},
+         * i.e., the use of the i-th variable in {@code uses[s]}
+         * is at {@code useOffsets[s] + i}.
+         */
+        private final int[] useOffsets;
+
+        private final int[][] useDefs;
+
+        private final int[][] defUses;
+
+        private Chains() {
+            int stmtCount = defs.length;
+            defIds = new int[stmtCount];
+            int defCount = varCount;
+            for (int i = 0; i < stmtCount; ++i) {
+                defIds[i] = getDef(i) == -1 ? -1 : defCount++;
+            }
+            useOffsets = new int[stmtCount + 1];
+            for (int i = 0; i < stmtCount; ++i) {
+                useOffsets[i + 1] = useOffsets[i] + getUses(i).length;
+            }
+            useDefs = new int[useOffsets[stmtCount]][];
+            defUses = new int[defCount][];
+            Arrays.fill(defUses, EMPTY);
+            // entry and exit have the largest indexes; unlike this bound,
+            // cfg.getNumberOfNodes() may copy all nodes
+            int size = Math.max(entryIndex, cfg.getExit().getIndex()) + 1;
+            Stmt[] nodes = new Stmt[size];
+            cfg.forEach(node -> nodes[node.getIndex()] = node);
+            // scratch space of the walks
+            int[] visited = new int[size];
+            int[] stack = new int[size];
+            int[] reached = new int[size];
+            int[] useDefCounts = new int[useDefs.length];
+            int walk = 0;
+            for (int var = 0; var < varCount; ++var) {
+                if (getUseSites(var).length == 0) {
+                    continue;
+                }
+                // definitions of var in ascending order of statement
+                // indexes; the entry has the largest index
+                int[] sites = getDefSites(var);
+                for (int k = 0; k <= sites.length; ++k) {
+                    int site = k < sites.length ? sites[k] : entryIndex;
+                    int n = walkFrom(nodes, site, var, ++walk,
+                            visited, stack, reached);
+                    if (n > 0) {
+                        int[] stmts = Arrays.copyOf(reached, n);
+                        Arrays.sort(stmts);
+                        for (int stmt : stmts) {
+                            ++useDefCounts[getUseSlot(stmt, var)];
+                        }
+                        defUses[k < sites.length ? defIds[site] : var] = stmts;
+                    }
+                }
+                for (int stmt : getUseSites(var)) {
+                    int slot = getUseSlot(stmt, var);
+                    useDefs[slot] = useDefCounts[slot] == 0 ?
+                            EMPTY : new int[useDefCounts[slot]];
+                    useDefCounts[slot] = 0;
+                }
+                // filling the definitions in ascending order keeps
+                // the use-def chains sorted
+                for (int k = 0; k <= sites.length; ++k) {
+                    int site = k < sites.length ? sites[k] : entryIndex;
+                    int[] stmts = defUses[k < sites.length ? defIds[site] : var];
+                    for (int stmt : stmts) {
+                        int slot = getUseSlot(stmt, var);
+                        useDefs[slot][useDefCounts[slot]++] = site;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Walks the CFG forward from the definition of given variable
+         * at the node of given index, until the variable is redefined.
+         *
+         * @param walk    the id of this walk, which marks the nodes
+         *                visited by it in {@code visited}
+         * @param reached receives the indexes of the statements whose uses
+         *                of the variable are reached by the definition
+         * @return the number of statements in {@code reached}.
+         */
+        private int walkFrom(Stmt[] nodes, int def, int var, int walk,
+                             int[] visited, int[] stack, int[] reached) {
+            int top = pushSuccs(nodes[def], walk, visited, stack, 0);
+            int n = 0;
+            while (top > 0) {
+                int index = stack[--top];
+                if (Arrays.binarySearch(getUses(index), var) >= 0) {
+                    reached[n++] = index;
+                }
+                // the definition is killed by the redefinition
+                if (getDef(index) != var) {
+                    top = pushSuccs(nodes[index], walk, visited, stack, top);
+                }
+            }
+            return n;
+        }
+
+        /**
+         * Pushes the successors of given node which have not been visited
+         * by given walk onto the stack.
+         *
+         * @return the new top of the stack.
+         */
+        private int pushSuccs(Stmt node, int walk,
+                              int[] visited, int[] stack, int top) {
+            for (Stmt succ : cfg.getSuccsOf(node)) {
+                if (visited[succ.getIndex()] != walk) {
+                    visited[succ.getIndex()] = walk;
+                    stack[top++] = succ.getIndex();
+                }
+            }
+            return top;
+        }
+
+        private int getUseSlot(int stmt, int var) {
+            return useOffsets[stmt] + Arrays.binarySearch(getUses(stmt), var);
+        }
+    }
+}
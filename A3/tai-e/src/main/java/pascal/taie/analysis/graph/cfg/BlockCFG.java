@@ -0,0 +1,251 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static pascal.taie.util.collection.CollectionUtils.getOne;
+
+/**
+ * A view of a CFG whose nodes are the basic blocks of the underlying CFG.
+ * <p>
+ * Two nodes are in the same block if the former has only one outgoing edge,
+ * and the edge is the only incoming edge of the latter. The entry and exit
+ * nodes of the underlying CFG form the entry and exit blocks by themselves.
+ *
+ * @param <N> type of the nodes of the underlying CFG
+ */
+public class BlockCFG<N> implements CFG<BasicBlock<N>> {
+
+    private final CFG<N> cfg;
+
+    private final List<BasicBlock<N>> blocks = new ArrayList<>();
+
+    private final Map<N, BasicBlock<N>> blockOf;
+
+    /**
+     * Positions of the nodes in their blocks.
+     */
+    private final Map<N, Integer> positions;
+
+    private final List<Set<Edge<BasicBlock<N>>>> inEdges = new ArrayList<>();
+
+    private final List<Set<Edge<BasicBlock<N>>>> outEdges = new ArrayList<>();
+
+    private final List<Set<BasicBlock<N>>> preds = new ArrayList<>();
+
+    private final List<Set<BasicBlock<N>>> succs = new ArrayList<>();
+
+    private final Set<BasicBlock<N>> blockSet;
+
+    public BlockCFG(CFG<N> cfg) {
+        this.cfg = cfg;
+        this.blockOf = Maps.newMap(cfg.getNumberOfNodes());
+        this.positions = Maps.newMap(cfg.getNumberOfNodes());
+        for (N node : cfg) {
+            if (isHead(node)) {
+                addBlock(node);
+            }
+        }
+        // the remaining nodes form cycles without heads,
+        // which are unreachable from the entry
+        for (N node : cfg) {
+            if (!blockOf.containsKey(node)) {
+                addBlock(node);
+            }
+        }
+        for (BasicBlock<N> block : blocks) {
+            Set<Edge<BasicBlock<N>>> blockInEdges = Sets.newHybridSet();
+            Set<BasicBlock<N>> blockPreds = Sets.newHybridSet();
+            for (Edge<N> edge : cfg.getInEdgesOf(block.getFirst())) {
+                BasicBlock<N> pred = blockOf.get(edge.getSource());
+                blockInEdges.add(new BlockEdge<>(edge, pred, block));
+                blockPreds.add(pred);
+            }
+            inEdges.add(Collections.unmodifiableSet(blockInEdges));
+            preds.add(Collections.unmodifiableSet(blockPreds));
+            Set<Edge<BasicBlock<N>>> blockOutEdges = Sets.newHybridSet();
+            Set<BasicBlock<N>> blockSuccs = Sets.newHybridSet();
+            for (Edge<N> edge : cfg.getOutEdgesOf(block.getLast())) {
+                BasicBlock<N> succ = blockOf.get(edge.getTarget());
+                blockOutEdges.add(new BlockEdge<>(edge, block, succ));
+                blockSuccs.add(succ);
+            }
+            outEdges.add(Collections.unmodifiableSet(blockOutEdges));
+            succs.add(Collections.unmodifiableSet(blockSuccs));
+        }
+        this.blockSet = Collections.unmodifiableSet(new LinkedHashSet<>(blocks));
+    }
+
+    /**
+     * @return true if given node falls through to its successor
+     * in the same block, otherwise false.
+     */
+    private boolean continuesTo(N node) {
+        if (cfg.isEntry(node) || cfg.getOutDegreeOf(node) != 1) {
+            return false;
+        }
+        N succ = getOne(cfg.getSuccsOf(node));
+        return !succ.equals(node) && !cfg.isExit(succ)
+                && cfg.getInDegreeOf(succ) == 1;
+    }
+
+    /**
+     * @return true if given node must be the first node of a block.
+     */
+    private boolean isHead(N node) {
+        return cfg.isEntry(node) || cfg.isExit(node)
+                || cfg.getInDegreeOf(node) != 1
+                || !continuesTo(getOne(cfg.getPredsOf(node)));
+    }
+
+    private void addBlock(N head) {
+        List<N> nodes = new ArrayList<>();
+        N node = head;
+        while (true) {
+            nodes.add(node);
+            if (!continuesTo(node)) {
+                break;
+            }
+            node = getOne(cfg.getSuccsOf(node));
+            if (node.equals(head)) {
+                break;
+            }
+        }
+        BasicBlock<N> block = new BasicBlock<>(blocks.size(), nodes);
+        blocks.add(block);
+        for (int i = 0; i < nodes.size(); ++i) {
+            blockOf.put(nodes.get(i), block);
+            positions.put(nodes.get(i), i);
+        }
+    }
+
+    /**
+     * @return the underlying CFG.
+     */
+    public CFG<N> getNodeCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the block containing given node, or null if the node
+     * is not in the underlying CFG.
+     */
+    public BasicBlock<N> getBlockOf(N node) {
+        return blockOf.get(node);
+    }
+
+    /**
+     * @return the position of given node in its block.
+     */
+    public int getPositionOf(N node) {
+        return positions.get(node);
+    }
+
+    /**
+     * @return the blocks in this CFG, sorted by their indexes.
+     */
+    public List<BasicBlock<N>> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    @Override
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return cfg.getMethod();
+    }
+
+    @Override
+    public BasicBlock<N> getEntry() {
+        return blockOf.get(cfg.getEntry());
+    }
+
+    @Override
+    public BasicBlock<N> getExit() {
+        return blockOf.get(cfg.getExit());
+    }
+
+    @Override
+    public boolean isEntry(BasicBlock<N> block) {
+        return block == getEntry();
+    }
+
+    @Override
+    public boolean isExit(BasicBlock<N> block) {
+        return block == getExit();
+    }
+
+    @Override
+    public Set<Edge<BasicBlock<N>>> getInEdgesOf(BasicBlock<N> block) {
+        return inEdges.get(block.getIndex());
+    }
+
+    @Override
+    public Set<Edge<BasicBlock<N>>> getOutEdgesOf(BasicBlock<N> block) {
+        return outEdges.get(block.getIndex());
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock<N> block) {
+        return blockSet.contains(block);
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock<N> source, BasicBlock<N> target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getPredsOf(BasicBlock<N> block) {
+        return preds.get(block.getIndex());
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getSuccsOf(BasicBlock<N> block) {
+        return succs.get(block.getIndex());
+    }
+
+    @Override
+    public Set<BasicBlock<N>> getNodes() {
+        return blockSet;
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
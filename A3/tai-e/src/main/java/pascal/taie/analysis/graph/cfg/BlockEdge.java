@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.language.type.ClassType;
+
+import java.util.Set;
+
+/**
+ * Represents the edges of {@link BlockCFG}. Each block edge corresponds to
+ * an edge from the last node of its source block to the first node of
+ * its target block in the underlying CFG.
+ *
+ * @param <N> type of the nodes in the blocks
+ */
+public class BlockEdge<N> extends Edge<BasicBlock<N>> {
+
+    private final Edge<N> nodeEdge;
+
+    BlockEdge(Edge<N> nodeEdge, BasicBlock<N> source, BasicBlock<N> target) {
+        super(nodeEdge.getKind(), source, target);
+        this.nodeEdge = nodeEdge;
+    }
+
+    /**
+     * @return the corresponding edge in the underlying CFG.
+     */
+    public Edge<N> getNodeEdge() {
+        return nodeEdge;
+    }
+
+    @Override
+    public int getCaseValue() {
+        return nodeEdge.getCaseValue();
+    }
+
+    @Override
+    public Set<ClassType> getExceptions() {
+        return nodeEdge.getExceptions();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BlockEdge<?> that)) {
+            return false;
+        }
+        return nodeEdge.equals(that.nodeEdge);
+    }
+
+    @Override
+    public int hashCode() {
+        return nodeEdge.hashCode();
+    }
+}
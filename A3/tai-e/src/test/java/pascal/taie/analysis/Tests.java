@@ -25,7 +25,14 @@ package pascal.taie.analysis;
 import org.junit.Assert;
 import pascal.taie.Main;
 import pascal.taie.World;
+import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.type.PrimitiveType;
 
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -135,6 +142,40 @@ public final class Tests {
         Main.main(args.toArray(new String[0]));
     }
 
+    /**
+     * Builds an IR of given statements, whose CFG is built and stored
+     * in the IR, for the tests of intra-procedural analyses which
+     * do not build the world. The targets of the jumps in the statements
+     * must have been set.
+     *
+     * @param params the parameters, which must be the first variables
+     * @param vars   all variables, whose indexes are their positions
+     * @param stmts  the statements, which are indexed by their positions
+     * @return the IR.
+     */
+    public static IR buildIR(List<Var> params, List<Var> vars, List<Stmt> stmts) {
+        for (int i = 0; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+            stmts.get(i).setLineNumber(i);
+        }
+        IR ir = new DefaultIR(null, null, params, Set.of(), vars, stmts, List.of());
+        CFG<Stmt> cfg = new CFGBuilder(new AnalysisConfig(CFGBuilder.ID,
+                "exception", "none", "dump", false)).analyze(ir);
+        ir.storeResult(CFGBuilder.ID, cfg);
+        return ir;
+    }
+
+    /**
+     * @return int variables v0, v1, ..., whose indexes are their numbers.
+     */
+    public static List<Var> newIntVars(int count) {
+        List<Var> vars = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+        return vars;
+    }
+
     /**
      * @param dir  the directory containing the test case
      * @param main main class of the test case
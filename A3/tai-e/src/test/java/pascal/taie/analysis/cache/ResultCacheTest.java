@@ -0,0 +1,138 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.cache;
+
+import org.junit.After;
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ResultCacheTest {
+
+    private final Path dir;
+
+    public ResultCacheTest() throws IOException {
+        dir = Files.createTempDirectory("taie-cache-test-");
+    }
+
+    @After
+    public void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files
+                    .sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        ResultCache cache = new ResultCache(dir, "{}", 1 << 20);
+        assertNull(cache.get("a"));
+        cache.put("a", new byte[]{1, 2, 3});
+        assertArrayEquals(new byte[]{1, 2, 3}, cache.get("a"));
+        cache.put("a", new byte[]{4});
+        assertArrayEquals(new byte[]{4}, cache.get("a"));
+        // the results are kept across runs with the same stamp
+        cache = new ResultCache(dir, "{}", 1 << 20);
+        assertArrayEquals(new byte[]{4}, cache.get("a"));
+        // and are discarded when the stamp changes
+        cache = new ResultCache(dir, "{strongly=false}", 1 << 20);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    public void testEviction() {
+        ResultCache cache = new ResultCache(dir, "{}", 10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        assertNotNull(cache.get("a"));
+        // b is the least recently used result
+        cache.put("c", new byte[4]);
+        assertNull(cache.get("b"));
+        assertFalse(Files.exists(dir.resolve("b.result")));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        // a result larger than the limit evicts all the others
+        cache.put("d", new byte[16]);
+        assertNull(cache.get("a"));
+        assertNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+    }
+
+    @Test
+    public void testStamp() {
+        LiveVariableAnalysis livevar = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID,
+                        "strongly", false, "cache", true, "cache-dir", dir.toString(),
+                        "cache-size", 1));
+        List<Var> vars = Tests.newIntVars(3);
+        Var x = vars.get(0), y = vars.get(1), z = vars.get(2);
+        IR ir = Tests.buildIR(List.of(), vars, List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new AssignLiteral(y, IntLiteral.get(2)),
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new Return(z)));
+        livevar.analyze(ir);
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        // the options of keeping and reporting the results
+        // do not invalidate the cached results
+        AnalysisConfig config = new AnalysisConfig(LiveVariableAnalysis.ID,
+                "strongly", false, "spill", true, "metrics", true, "intern", true);
+        String stamp = ResultCache.getStamp(config.getOptions(),
+                LiveVariableAnalysis.SOLVING_OPTIONS);
+        assertEquals("{strongly=false}", stamp);
+        ResultCache cache = new ResultCache(
+                dir.resolve(LiveVariableAnalysis.ID), stamp, 1 << 20);
+        assertNotNull(cache.get(ResultCache.getKey(cfg)));
+        // but the options of solving do
+        config = new AnalysisConfig(LiveVariableAnalysis.ID, "strongly", true);
+        assertNotEquals(stamp, ResultCache.getStamp(config.getOptions(),
+                LiveVariableAnalysis.SOLVING_OPTIONS));
+    }
+}
@@ -44,6 +44,37 @@ public class DeadCodeTest {
         testDCD("UnreachableIfBranch");
     }
 
+    @Test
+    public void testUnreachableIfBranchSCCP() {
+        Tests.test("UnreachableIfBranch", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "sccp:true",
+                "-a", "livevar=strongly:false");
+    }
+
+    @Test
+    public void testUnmodeledCondition() {
+        testDCD("UnmodeledCondition");
+    }
+
+    @Test
+    public void testUnmodeledConditionSCCP() {
+        Tests.test("UnmodeledCondition", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "sccp:true",
+                "-a", "livevar=strongly:false");
+    }
+
+    @Test
+    public void testNonIntCondition() {
+        testDCD("NonIntCondition");
+    }
+
+    @Test
+    public void testNonIntConditionSCCP() {
+        Tests.test("NonIntCondition", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID, "sccp:true;dense:false",
+                "-a", "livevar=strongly:false");
+    }
+
     @Test
     public void testUnreachableSwitchBranch() {
         testDCD("UnreachableSwitchBranch");
@@ -58,4 +89,20 @@ public class DeadCodeTest {
     public void testLoops() {
         testDCD("Loops");
     }
+
+    @Test
+    public void testLoopsBlockLevel() {
+        Tests.test("Loops", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;block-level:true",
+                "-a", "constprop=edge-refine:false;block-level:true");
+    }
+
+    @Test
+    public void testLoopsWTO() {
+        Tests.test("Loops", "src/test/resources/dataflow/deadcode/",
+                DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false;iteration:wto",
+                "-a", "constprop=edge-refine:false;iteration:wto");
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.Main;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class LiveVariableQueryTest {
+
+    /**
+     * Checks that the answers of {@link LiveVariableQuery} are the same
+     * as the facts of given result of {@link LiveVariableAnalysis},
+     * for all variables at all nodes.
+     */
+    private static void compare(IR ir, DataflowResult<Stmt, SetFact<Var>> liveVars) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        LiveVariableQuery query = new LiveVariableQuery(cfg);
+        for (Stmt stmt : cfg) {
+            for (Var var : ir.getVars()) {
+                String where = var + " at " + stmt + " in " + ir.getMethod();
+                assertEquals("live-in of " + where,
+                        liveVars.getInFact(stmt).contains(var),
+                        query.isLiveIn(stmt, var));
+                assertEquals("live-out of " + where,
+                        liveVars.getOutFact(stmt).contains(var),
+                        query.isLiveOut(stmt, var));
+            }
+        }
+    }
+
+    /**
+     * Runs live variable analysis on given test program, and compares
+     * its results of all methods of the program with the queries.
+     */
+    private static void testProgram(String main) {
+        Main.main(new String[]{"-pp",
+                "-cp", "src/test/resources/dataflow/deadcode/",
+                "-m", main,
+                "-a", LiveVariableAnalysis.ID + "=strongly:false"});
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .forEach(ir -> compare(ir, ir.getResult(LiveVariableAnalysis.ID)));
+    }
+
+    @Test
+    public void testControlFlowUnreachable() {
+        testProgram("ControlFlowUnreachable");
+    }
+
+    @Test
+    public void testUnreachableIfBranch() {
+        testProgram("UnreachableIfBranch");
+    }
+
+    @Test
+    public void testUnreachableSwitchBranch() {
+        testProgram("UnreachableSwitchBranch");
+    }
+
+    @Test
+    public void testDeadAssignment() {
+        testProgram("DeadAssignment");
+    }
+
+    @Test
+    public void testLoops() {
+        testProgram("Loops");
+    }
+
+    /**
+     * <pre>
+     * 0: x = 0;
+     * 1: y = p;
+     * 2: if (x >= p) goto 6;
+     * 3: x = x + y;
+     * 4: y = 1;
+     * 5: goto 2;
+     * 6: return x;
+     * </pre>
+     * where y is live around the loop until it is redefined.
+     */
+    @Test
+    public void testLoopIR() {
+        List<Var> vars = Tests.newIntVars(3);
+        Var p = vars.get(0), x = vars.get(1), y = vars.get(2);
+        If loop = new If(new ConditionExp(ConditionExp.Op.GE, x, p));
+        Goto back = new Goto();
+        Return ret = new Return(x);
+        loop.setTarget(ret);
+        back.setTarget(loop);
+        IR ir = Tests.buildIR(List.of(p), vars, List.<Stmt>of(
+                new AssignLiteral(x, IntLiteral.get(0)),
+                new Copy(y, p),
+                loop,
+                new Binary(x, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new AssignLiteral(y, IntLiteral.get(1)),
+                back,
+                ret));
+        LiveVariableAnalysis analysis = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID));
+        compare(ir, analysis.analyze(ir));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.solver.Solver;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProductDataflowAnalysisTest {
+
+    /**
+     * Constant propagation which refines the facts on the true edges
+     * of conditions {@code x == y}: if y is a constant, so is x.
+     */
+    private static class EdgeRefinedConstantPropagation
+            extends DelegatingDataflowAnalysis<Stmt, CPFact> {
+
+        private EdgeRefinedConstantPropagation(ConstantPropagation constprop) {
+            super(constprop);
+        }
+
+        @Override
+        public boolean needTransferEdge(Edge<Stmt> edge) {
+            return edge.getKind() == Edge.Kind.IF_TRUE &&
+                    ((If) edge.getSource()).getCondition().getOperator()
+                            == ConditionExp.Op.EQ;
+        }
+
+        @Override
+        public CPFact transferEdge(Edge<Stmt> edge, CPFact nodeFact) {
+            ConditionExp cond = ((If) edge.getSource()).getCondition();
+            CPFact fact = nodeFact.copy();
+            Value value = fact.get(cond.getOperand2());
+            if (value.isConstant()) {
+                fact.update(cond.getOperand1(), value);
+            }
+            return fact;
+        }
+    }
+
+    /**
+     * <pre>
+     * 0: x = p;
+     * 1: c = 3;
+     * 2: if (x == c) goto 5;
+     * 3: y = 0;
+     * 4: goto 6;
+     * 5: y = x;
+     * 6: z = y + c;
+     * 7: if (z < c) goto 2;
+     * 8: return z;
+     * </pre>
+     */
+    private static IR buildIR() {
+        List<Var> vars = Tests.newIntVars(5);
+        Var p = vars.get(0), x = vars.get(1), c = vars.get(2),
+                y = vars.get(3), z = vars.get(4);
+        If branch = new If(new ConditionExp(ConditionExp.Op.EQ, x, c));
+        Goto merge = new Goto();
+        Copy refined = new Copy(y, x);
+        Binary join = new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, y, c));
+        If loop = new If(new ConditionExp(ConditionExp.Op.LT, z, c));
+        branch.setTarget(refined);
+        merge.setTarget(join);
+        loop.setTarget(branch);
+        return Tests.buildIR(List.of(p), vars, List.<Stmt>of(
+                new Copy(x, p),
+                new AssignLiteral(c, IntLiteral.get(3)),
+                branch,
+                new AssignLiteral(y, IntLiteral.get(0)),
+                merge,
+                refined,
+                join,
+                loop,
+                new Return(z)));
+    }
+
+    @Test
+    public void testSplitEqualsSeparateResults() {
+        IR ir = buildIR();
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        ConstantPropagation constprop = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID));
+        List<DataflowAnalysis<Stmt, CPFact>> analyses = List.of(
+                constprop,
+                new EdgeRefinedConstantPropagation(new ConstantPropagation(
+                        new AnalysisConfig(ConstantPropagation.ID, "dense", false))));
+        List<DataflowResult<Stmt, ?>> results =
+                new ProductDataflowAnalysis<>(analyses).solve(cfg);
+        assertEquals(analyses.size(), results.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            DataflowResult<Stmt, CPFact> expected =
+                    Solver.makeSolver(analyses.get(i)).solve(cfg);
+            DataflowResult<Stmt, ?> result = results.get(i);
+            for (Stmt stmt : cfg) {
+                assertEquals("IN of " + stmt + " in component " + i,
+                        expected.getInFact(stmt), result.getInFact(stmt));
+                assertEquals("OUT of " + stmt + " in component " + i,
+                        expected.getOutFact(stmt), result.getOutFact(stmt));
+            }
+        }
+        // only the second component refines x on the true edge
+        Stmt refined = ir.getStmt(5);
+        Var x = ir.getVar(1);
+        assertEquals(Value.getNAC(),
+                ((CPFact) results.get(0).getInFact(refined)).get(x));
+        assertEquals(Value.makeConstant(3),
+                ((CPFact) results.get(1).getInFact(refined)).get(x));
+    }
+}
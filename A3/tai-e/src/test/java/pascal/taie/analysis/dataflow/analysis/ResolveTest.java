@@ -0,0 +1,184 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResolveTest {
+
+    private final LiveVariableAnalysis livevar = new LiveVariableAnalysis(
+            new AnalysisConfig(LiveVariableAnalysis.ID));
+
+    private final ConstantPropagation constprop = new ConstantPropagation(
+            new AnalysisConfig(ConstantPropagation.ID));
+
+    private List<Var> vars;
+
+    private Var p, x, y, z;
+
+    private If loop;
+
+    private List<Stmt> stmts;
+
+    /**
+     * Builds the statements:
+     * <pre>
+     * 0: x = 1;
+     * 1: y = 0;
+     * 2: if (y >= p) goto 7;
+     * 3: y = y + x;
+     * 4: z = y + x;
+     * 5: y = z - x;
+     * 6: goto 2;
+     * 7: return y;
+     * </pre>
+     */
+    private void buildStmts() {
+        vars = Tests.newIntVars(4);
+        p = vars.get(0);
+        x = vars.get(1);
+        y = vars.get(2);
+        z = vars.get(3);
+        loop = new If(new ConditionExp(ConditionExp.Op.GE, y, p));
+        Goto back = new Goto();
+        Return ret = new Return(y);
+        loop.setTarget(ret);
+        back.setTarget(loop);
+        stmts = new ArrayList<>(List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new AssignLiteral(y, IntLiteral.get(0)),
+                loop,
+                new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, y, x)),
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, y, x)),
+                new Binary(y, new ArithmeticExp(ArithmeticExp.Op.SUB, z, x)),
+                back,
+                ret));
+    }
+
+    /**
+     * Solves the IR of {@link #stmts}, edits the statements, repairs the
+     * results for the edited IR, and checks that the repaired results
+     * are the same as the ones solved from scratch.
+     *
+     * @param edit    edits {@link #stmts}
+     * @param changed the nodes changed by the edit
+     */
+    private void resolve(Runnable edit, List<Stmt> changed) {
+        IR ir = Tests.buildIR(List.of(p), vars, stmts);
+        DataflowResult<Stmt, SetFact<Var>> liveVars = livevar.analyze(ir);
+        DataflowResult<Stmt, CPFact> constants = constprop.analyze(ir);
+        edit.run();
+        IR edited = Tests.buildIR(List.of(p), vars, stmts);
+        liveVars = livevar.resolve(edited, liveVars, changed);
+        constants = constprop.resolve(edited, constants, changed);
+        compare(edited, livevar.analyze(edited), liveVars);
+        compare(edited, constprop.analyze(edited), constants);
+    }
+
+    private static <Fact> void compare(IR ir, DataflowResult<Stmt, Fact> expected,
+                                       DataflowResult<Stmt, Fact> result) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        for (Stmt stmt : cfg) {
+            assertEquals("IN of " + stmt, expected.getInFact(stmt),
+                    result.getInFact(stmt));
+            assertEquals("OUT of " + stmt, expected.getOutFact(stmt),
+                    result.getOutFact(stmt));
+        }
+    }
+
+    /**
+     * Inserts {@code x = 2} before statement 4, so that x is not constant
+     * in the loop, and x at statement 3 is no longer live after it.
+     */
+    @Test
+    public void testInsertion() {
+        buildStmts();
+        Stmt insert = new AssignLiteral(x, IntLiteral.get(2));
+        Stmt pred = stmts.get(3), succ = stmts.get(4);
+        resolve(() -> stmts.add(4, insert), List.of(pred, insert, succ));
+    }
+
+    /**
+     * Removes {@code x = 1}, so that x is undefined before and in the loop,
+     * while the old facts around the loop still have x = 1.
+     */
+    @Test
+    public void testDeletion() {
+        buildStmts();
+        Stmt succ = stmts.get(1);
+        resolve(() -> stmts.remove(0), List.of(succ));
+    }
+
+    /**
+     * Removes {@code y = y + x} in the loop, and the use of x in it.
+     */
+    @Test
+    public void testDeletionInLoop() {
+        buildStmts();
+        Stmt pred = stmts.get(2), succ = stmts.get(4);
+        resolve(() -> stmts.remove(3), List.of(pred, succ));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testBlockLevel() {
+        buildStmts();
+        IR ir = Tests.buildIR(List.of(p), vars, stmts);
+        LiveVariableAnalysis analysis = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID, "block-level", true));
+        analysis.resolve(ir, analysis.analyze(ir), List.of(stmts.get(3)));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testSparse() {
+        buildStmts();
+        IR ir = Tests.buildIR(List.of(p), vars, stmts);
+        ConstantPropagation analysis = new ConstantPropagation(
+                new AnalysisConfig(ConstantPropagation.ID, "sparse", true));
+        analysis.resolve(ir, analysis.analyze(ir), List.of(stmts.get(3)));
+    }
+}
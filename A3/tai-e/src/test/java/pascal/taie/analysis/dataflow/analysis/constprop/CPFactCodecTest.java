@@ -0,0 +1,81 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.exp.Var;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CPFactCodecTest {
+
+    private final List<Var> vars = Tests.newIntVars(4);
+
+    private CPFact roundTrip(CPFact fact, Supplier<CPFact> factory)
+            throws IOException {
+        CPFactCodec codec = new CPFactCodec(factory, vars::get);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.encode(fact, new DataOutputStream(bytes));
+        return codec.decode(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    /**
+     * Fills given fact with a variable of each kind of value.
+     */
+    private CPFact fill(CPFact fact) {
+        fact.update(vars.get(0), Value.makeConstant(-7));
+        fact.update(vars.get(1), Value.getNAC());
+        fact.update(vars.get(2), Value.makeConstant(Integer.MAX_VALUE));
+        return fact;
+    }
+
+    @Test
+    public void testCPFact() throws IOException {
+        assertNull(roundTrip(null, CPFact::new));
+        assertEquals(new CPFact(), roundTrip(new CPFact(), CPFact::new));
+        CPFact fact = fill(new CPFact());
+        CPFact decoded = roundTrip(fact, CPFact::new);
+        assertEquals(fact, decoded);
+        assertEquals(Value.getUndef(), decoded.get(vars.get(3)));
+    }
+
+    @Test
+    public void testDenseCPFact() throws IOException {
+        Supplier<CPFact> factory = () -> new DenseCPFact(vars::get, vars.size());
+        CPFact fact = fill(factory.get());
+        CPFact decoded = roundTrip(fact, factory);
+        assertEquals(DenseCPFact.class, decoded.getClass());
+        assertEquals(fact, decoded);
+    }
+}
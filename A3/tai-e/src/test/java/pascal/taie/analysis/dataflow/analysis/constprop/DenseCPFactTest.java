@@ -0,0 +1,164 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DenseCPFactTest {
+
+    private static final int N = 12;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    private final ConstantPropagation constprop = new ConstantPropagation(
+            new AnalysisConfig(ConstantPropagation.ID));
+
+    private final Random random = new Random(0);
+
+    public DenseCPFactTest() {
+        for (int i = 0; i < N; ++i) {
+            // every fourth variable cannot hold int values
+            PrimitiveType type = i % 4 == 3 ? PrimitiveType.LONG : PrimitiveType.INT;
+            vars.add(new Var(null, "v" + i, type, i));
+        }
+    }
+
+    private Value randomValue() {
+        return switch (random.nextInt(4)) {
+            case 0 -> Value.getUndef();
+            case 1 -> Value.getNAC();
+            default -> Value.makeConstant(random.nextInt(3));
+        };
+    }
+
+    /**
+     * @return a pair of facts, {CPFact, DenseCPFact}, with the same
+     * values of the int variables.
+     */
+    private CPFact[] randomFacts() {
+        CPFact fact = new CPFact();
+        CPFact dense = new DenseCPFact(vars::get, 2);
+        for (Var var : vars) {
+            if (ConstantPropagation.canHoldInt(var)) {
+                Value value = randomValue();
+                assertEquals(fact.update(var, value), dense.update(var, value));
+            }
+        }
+        return new CPFact[]{fact, dense};
+    }
+
+    private void assertSameValues(CPFact expected, CPFact actual) {
+        for (Var var : vars) {
+            if (ConstantPropagation.canHoldInt(var)) {
+                assertEquals(expected.get(var), actual.get(var));
+            }
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    public void testUntrackedVariables() {
+        DenseCPFact fact = new DenseCPFact(vars::get, N);
+        Var untracked = vars.get(3);
+        assertFalse(ConstantPropagation.canHoldInt(untracked));
+        assertFalse(fact.update(untracked, Value.makeConstant(1)));
+        assertEquals(Value.getNAC(), fact.get(untracked));
+        assertTrue(fact.isEmpty());
+        assertTrue(fact.keySet().isEmpty());
+        assertFalse(fact.copyFromWith(fact.copy(), untracked, Value.getNAC()));
+        fact.update(vars.get(0), Value.makeConstant(1));
+        assertEquals("{v0=1}", fact.toString());
+    }
+
+    @Test
+    public void testMeet() {
+        for (int round = 0; round < 300; ++round) {
+            CPFact[] source = randomFacts(), target = randomFacts();
+            constprop.meetInto(source[0], target[0]);
+            constprop.meetInto(source[1], target[1]);
+            assertSameValues(target[0], target[1]);
+        }
+    }
+
+    @Test
+    public void testCopy() {
+        for (int round = 0; round < 100; ++round) {
+            CPFact[] facts = randomFacts();
+            CPFact copy = facts[1].copy();
+            assertEquals(facts[1], copy);
+            assertSameValues(facts[0], copy);
+            copy.update(vars.get(0), Value.makeConstant(42));
+            assertEquals(Value.makeConstant(42), copy.get(vars.get(0)));
+            assertSameValues(facts[0], facts[1]);
+        }
+    }
+
+    @Test
+    public void testCopyFrom() {
+        for (int round = 0; round < 300; ++round) {
+            CPFact[] source = randomFacts(), target = randomFacts();
+            assertEquals(target[0].copyFrom(source[0]),
+                    target[1].copyFrom(source[1]));
+            assertSameValues(target[0], target[1]);
+            // untracked variables are covered by testUntrackedVariables()
+            Var var;
+            do {
+                var = vars.get(random.nextInt(N));
+            } while (!ConstantPropagation.canHoldInt(var));
+            Value value = randomValue();
+            assertEquals(target[0].copyFromWith(source[0], var, value),
+                    target[1].copyFromWith(source[1], var, value));
+            assertSameValues(target[0], target[1]);
+        }
+    }
+
+    @Test
+    public void testEquals() {
+        for (int round = 0; round < 300; ++round) {
+            CPFact[] facts1 = randomFacts(), facts2 = randomFacts();
+            assertEquals(facts1[0].equals(facts2[0]), facts1[1].equals(facts2[1]));
+            if (facts1[1].equals(facts2[1])) {
+                assertEquals(facts1[1].hashCode(), facts2[1].hashCode());
+            }
+        }
+        // equal facts of different capacities
+        DenseCPFact small = new DenseCPFact(vars::get, 1);
+        DenseCPFact large = new DenseCPFact(vars::get, N);
+        small.update(vars.get(5), Value.getNAC());
+        large.update(vars.get(5), Value.getNAC());
+        assertEquals(small, large);
+        assertEquals(large, small);
+        assertEquals(small.hashCode(), large.hashCode());
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.ConfigException;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.LongLiteral;
+import pascal.taie.ir.exp.NegExp;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.Unary;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SparseConstantPropagationTest {
+
+    private final ConstantPropagation dense = new ConstantPropagation(
+            new AnalysisConfig(ConstantPropagation.ID));
+
+    private final ConstantPropagation uncompiled = new ConstantPropagation(
+            new AnalysisConfig(ConstantPropagation.ID, "compiled", false));
+
+    private final ConstantPropagation sparse = new ConstantPropagation(
+            new AnalysisConfig(ConstantPropagation.ID, "sparse", true));
+
+    /**
+     * Checks that the facts of all nodes given by sparse constant
+     * propagation and by dense constant propagation without compiled
+     * transfers are the same as the ones of dense constant propagation.
+     */
+    private void compare(IR ir) {
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, CPFact> expected = dense.analyze(ir);
+        for (ConstantPropagation analysis : List.of(uncompiled, sparse)) {
+            DataflowResult<Stmt, CPFact> result = analysis.analyze(ir);
+            for (Stmt stmt : cfg) {
+                assertEquals("IN of " + stmt, expected.getInFact(stmt),
+                        result.getInFact(stmt));
+                assertEquals("OUT of " + stmt, expected.getOutFact(stmt),
+                        result.getOutFact(stmt));
+            }
+        }
+    }
+
+    /**
+     * <pre>
+     * 0: x = 1;
+     * 1: y = 2;
+     * 2: if (x >= p) goto 6;
+     * 3: z = x + y;
+     * 4: y = z - x;
+     * 5: goto 2;
+     * 6: return z;
+     * </pre>
+     */
+    @Test
+    public void testLoop() {
+        List<Var> vars = Tests.newIntVars(4);
+        Var p = vars.get(0), x = vars.get(1), y = vars.get(2), z = vars.get(3);
+        If loop = new If(new ConditionExp(ConditionExp.Op.GE, x, p));
+        Goto back = new Goto();
+        Return ret = new Return(z);
+        loop.setTarget(ret);
+        back.setTarget(loop);
+        compare(Tests.buildIR(List.of(p), vars, List.<Stmt>of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new AssignLiteral(y, IntLiteral.get(2)),
+                loop,
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new Binary(y, new ArithmeticExp(ArithmeticExp.Op.SUB, z, x)),
+                back,
+                ret)));
+    }
+
+    /**
+     * <pre>
+     * 0: if (p < q) goto 3;
+     * 1: x = 1;
+     * 2: goto 4;
+     * 3: x = 2;
+     * 4: y = x + x;
+     * 5: return y;
+     * </pre>
+     */
+    @Test
+    public void testDiamond() {
+        List<Var> vars = Tests.newIntVars(4);
+        Var p = vars.get(0), q = vars.get(1), x = vars.get(2), y = vars.get(3);
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, p, q));
+        Goto merge = new Goto();
+        AssignLiteral other = new AssignLiteral(x, IntLiteral.get(2));
+        Binary join = new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x));
+        branch.setTarget(other);
+        merge.setTarget(join);
+        compare(Tests.buildIR(List.of(p, q), vars, List.<Stmt>of(
+                branch,
+                new AssignLiteral(x, IntLiteral.get(1)),
+                merge,
+                other,
+                join,
+                new Return(y))));
+    }
+
+    /**
+     * <pre>
+     * 0: x = 1;
+     * 1: goto 3;
+     * 2: x = 5; // unreachable
+     * 3: return x;
+     * </pre>
+     */
+    @Test
+    public void testUnreachable() {
+        List<Var> vars = Tests.newIntVars(1);
+        Var x = vars.get(0);
+        Return ret = new Return(x);
+        Goto skip = new Goto();
+        skip.setTarget(ret);
+        compare(Tests.buildIR(List.of(), vars, List.<Stmt>of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                skip,
+                new AssignLiteral(x, IntLiteral.get(5)),
+                ret)));
+    }
+
+    /**
+     * <pre>
+     * 0: x = 1;
+     * 1: x = -p; // not modeled
+     * 2: y = x + x;
+     * 3: return y;
+     * </pre>
+     */
+    @Test
+    public void testUnmodeled() {
+        List<Var> vars = Tests.newIntVars(3);
+        Var p = vars.get(0), x = vars.get(1), y = vars.get(2);
+        compare(Tests.buildIR(List.of(p), vars, List.<Stmt>of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new Unary(x, new NegExp(p)),
+                new Binary(y, new ArithmeticExp(ArithmeticExp.Op.ADD, x, x)),
+                new Return(y))));
+    }
+
+    /**
+     * The division on the infeasible branch is transferred by dense
+     * constant propagation, and it results in UNDEF instead of throwing
+     * ArithmeticException.
+     * <pre>
+     * 0: y = 0;
+     * 1: z = 10;
+     * 2: if (y == y) goto 4;
+     * 3: z = z / y;
+     * 4: return z;
+     * </pre>
+     */
+    @Test
+    public void testDivisionByZero() {
+        List<Var> vars = Tests.newIntVars(2);
+        Var y = vars.get(0), z = vars.get(1);
+        Return ret = new Return(z);
+        If branch = new If(new ConditionExp(ConditionExp.Op.EQ, y, y));
+        branch.setTarget(ret);
+        IR ir = Tests.buildIR(List.of(), vars, List.<Stmt>of(
+                new AssignLiteral(y, IntLiteral.get(0)),
+                new AssignLiteral(z, IntLiteral.get(10)),
+                branch,
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.DIV, z, y)),
+                ret));
+        compare(ir);
+        assertEquals(Value.makeConstant(10),
+                uncompiled.analyze(ir).getInFact(ret).get(z));
+    }
+
+    /**
+     * <pre>
+     * 0: l = 1L; // not an int literal
+     * 1: x = 3;
+     * 2: return x;
+     * </pre>
+     */
+    @Test
+    public void testNonIntLiteral() {
+        List<Var> vars = new ArrayList<>(Tests.newIntVars(1));
+        Var x = vars.get(0);
+        Var l = new Var(null, "l", PrimitiveType.LONG, 1);
+        vars.add(l);
+        compare(Tests.buildIR(List.of(), vars, List.<Stmt>of(
+                new AssignLiteral(l, LongLiteral.get(1L)),
+                new AssignLiteral(x, IntLiteral.get(3)),
+                new Return(x))));
+    }
+
+    @Test(expected = ConfigException.class)
+    public void testIncompatibleOptions() {
+        new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID,
+                "sparse", true, "intern", true));
+    }
+}
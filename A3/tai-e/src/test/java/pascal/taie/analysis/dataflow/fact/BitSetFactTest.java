@@ -0,0 +1,201 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.language.type.PrimitiveType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BitSetFactTest {
+
+    private static final int N = 150;
+
+    private final List<Var> vars = new ArrayList<>();
+
+    public BitSetFactTest() {
+        for (int i = 0; i < N; ++i) {
+            vars.add(new Var(null, "v" + i, PrimitiveType.INT, i));
+        }
+    }
+
+    private BitSetFact<Var> bitSet(int... indexes) {
+        BitSetFact<Var> fact = new BitSetFact<>(vars::get, N);
+        for (int i : indexes) {
+            fact.add(vars.get(i));
+        }
+        return fact;
+    }
+
+    private SetFact<Var> hashSet(int... indexes) {
+        SetFact<Var> fact = new SetFact<>();
+        for (int i : indexes) {
+            fact.add(vars.get(i));
+        }
+        return fact;
+    }
+
+    private static Set<String> names(SetFact<Var> fact) {
+        return fact.stream().map(Var::getName).collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testAddRemove() {
+        BitSetFact<Var> fact = bitSet();
+        assertTrue(fact.isEmpty());
+        assertTrue(fact.add(vars.get(3)));
+        assertFalse(fact.add(vars.get(3)));
+        assertTrue(fact.add(vars.get(130)));
+        assertTrue(fact.contains(vars.get(130)));
+        assertFalse(fact.contains(vars.get(64)));
+        assertEquals(2, fact.size());
+        assertTrue(fact.remove(vars.get(3)));
+        assertFalse(fact.remove(vars.get(3)));
+        assertEquals(Set.of("v130"), names(fact));
+        assertTrue(fact.removeIf(v -> v.getIndex() > 100));
+        assertTrue(fact.isEmpty());
+    }
+
+    @Test
+    public void testGrowBeyondCapacity() {
+        BitSetFact<Var> small = new BitSetFact<>(vars::get, 1);
+        small.add(vars.get(140));
+        BitSetFact<Var> large = bitSet(140);
+        assertEquals(small, large);
+        assertEquals(large, small);
+        assertEquals(small.hashCode(), large.hashCode());
+        assertFalse(large.union(small));
+        assertFalse(small.intersect(large));
+    }
+
+    @Test
+    public void testBinaryOperations() {
+        BitSetFact<Var> a = bitSet(1, 2, 70, 128);
+        assertTrue(a.union(bitSet(2, 3, 149)));
+        assertEquals(bitSet(1, 2, 3, 70, 128, 149), a);
+        assertFalse(a.union(bitSet(1, 149)));
+        assertTrue(a.intersect(bitSet(2, 3, 128, 140)));
+        assertEquals(bitSet(2, 3, 128), a);
+        assertFalse(a.intersect(bitSet(2, 3, 128)));
+        assertTrue(a.difference(bitSet(3, 100)));
+        assertEquals(bitSet(2, 128), a);
+        assertFalse(a.difference(bitSet(3)));
+        a.set(bitSet(5));
+        assertEquals(bitSet(5), a);
+        assertEquals(bitSet(5, 6), a.unionWith(bitSet(6)));
+        assertEquals(bitSet(5), a);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        BitSetFact<Var> a = bitSet(1, 100);
+        BitSetFact<Var> copy = a.copy();
+        copy.add(vars.get(2));
+        copy.remove(vars.get(100));
+        assertEquals(bitSet(1, 100), a);
+        assertEquals(bitSet(1, 2), copy);
+    }
+
+    @Test
+    public void testSetKillGen() {
+        BitSetFact<Var> in = bitSet(9);
+        assertTrue(in.setKillGen(bitSet(1, 2, 65), 2, new int[]{3, 120}));
+        assertEquals(bitSet(1, 3, 65, 120), in);
+        assertFalse(in.setKillGen(bitSet(1, 2, 65), 2, new int[]{3, 120}));
+        assertTrue(in.setKillGen(bitSet(), -1, new int[0]));
+        assertTrue(in.isEmpty());
+    }
+
+    @Test
+    public void testMixedOperands() {
+        // bit set with hash set as the other operand
+        BitSetFact<Var> bits = bitSet(1, 2, 70);
+        assertTrue(bits.union(hashSet(3, 70)));
+        assertTrue(bits.intersect(hashSet(1, 3, 70, 99)));
+        assertTrue(bits.difference(hashSet(70)));
+        assertEquals(Set.of("v1", "v3"), names(bits));
+        // hash set with bit set as the other operand
+        SetFact<Var> hash = hashSet(1, 2, 70);
+        assertTrue(hash.union(bitSet(3, 70)));
+        assertFalse(hash.union(bitSet(3)));
+        assertTrue(hash.intersect(bitSet(1, 3, 70, 99)));
+        assertTrue(hash.difference(bitSet(70)));
+        assertFalse(hash.difference(bitSet(70)));
+        assertEquals(Set.of("v1", "v3"), names(hash));
+        hash.set(bitSet(4));
+        assertEquals(Set.of("v4"), names(hash));
+    }
+
+    @Test
+    public void testMixedEquality() {
+        assertEquals(hashSet(1, 70), bitSet(1, 70));
+        assertEquals(bitSet(1, 70), hashSet(1, 70));
+        assertEquals(hashSet(1, 70).hashCode(), bitSet(1, 70).hashCode());
+        assertEquals(hashSet(), bitSet());
+        assertNotEquals(hashSet(1, 70), bitSet(1));
+        assertNotEquals(bitSet(1), hashSet(1, 70));
+        assertNotEquals(bitSet(1, 2), hashSet(1, 3));
+    }
+
+    @Test
+    public void testAgreeWithHashSet() {
+        Random random = new Random(0);
+        for (int round = 0; round < 200; ++round) {
+            int[] x = random.ints(random.nextInt(30), 0, N).toArray();
+            int[] y = random.ints(random.nextInt(30), 0, N).toArray();
+            for (int op = 0; op < 3; ++op) {
+                BitSetFact<Var> bits = bitSet(x);
+                SetFact<Var> hash = hashSet(x);
+                boolean bitsChanged, hashChanged;
+                switch (op) {
+                    case 0 -> {
+                        bitsChanged = bits.union(bitSet(y));
+                        hashChanged = hash.union(hashSet(y));
+                    }
+                    case 1 -> {
+                        bitsChanged = bits.intersect(bitSet(y));
+                        hashChanged = hash.intersect(hashSet(y));
+                    }
+                    default -> {
+                        bitsChanged = bits.difference(bitSet(y));
+                        hashChanged = hash.difference(hashSet(y));
+                    }
+                }
+                assertEquals(hashChanged, bitsChanged);
+                assertEquals(hash, bits);
+                assertEquals(names(hash), names(bits));
+                assertEquals(hash.size(), bits.size());
+            }
+        }
+    }
+}
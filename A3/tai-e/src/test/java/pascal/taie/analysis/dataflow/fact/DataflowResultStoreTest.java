@@ -0,0 +1,120 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class DataflowResultStoreTest {
+
+    private final LiveVariableAnalysis livevar = new LiveVariableAnalysis(
+            new AnalysisConfig(LiveVariableAnalysis.ID));
+
+    private final List<CFG<Stmt>> cfgs = new ArrayList<>();
+
+    private final List<DataflowResult<Stmt, SetFact<Var>>> results = new ArrayList<>();
+
+    /**
+     * Solves {@code count} methods of the form
+     * {@code x = 1; y = i; z = x + y; return z;}.
+     */
+    private void solve(int count) {
+        for (int i = 0; i < count; ++i) {
+            List<Var> vars = Tests.newIntVars(3);
+            Var x = vars.get(0), y = vars.get(1), z = vars.get(2);
+            IR ir = Tests.buildIR(List.of(), vars, List.of(
+                    new AssignLiteral(x, IntLiteral.get(1)),
+                    new AssignLiteral(y, IntLiteral.get(i)),
+                    new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                    new Return(z)));
+            cfgs.add(ir.getResult(CFGBuilder.ID));
+            results.add(livevar.analyze(ir));
+        }
+    }
+
+    private SpilledDataflowResult<Stmt, SetFact<Var>> spill(
+            DataflowResultStore store, int i) {
+        CFG<Stmt> cfg = cfgs.get(i);
+        return store.spill(cfg, results.get(i),
+                FactCodec.ofSetFact(SetFact::new, cfg.getIR()::getVar));
+    }
+
+    private void assertSameFacts(DataflowResult<Stmt, SetFact<Var>> expected,
+                                 DataflowResult<Stmt, SetFact<Var>> actual,
+                                 CFG<Stmt> cfg) {
+        for (Stmt node : cfg) {
+            assertEquals(expected.getInFact(node), actual.getInFact(node));
+            assertEquals(expected.getOutFact(node), actual.getOutFact(node));
+        }
+    }
+
+    @Test
+    public void testEvictionAndReload() {
+        solve(3);
+        DataflowResultStore store = new DataflowResultStore("taie-test-", null, 1);
+        List<SpilledDataflowResult<Stmt, SetFact<Var>>> spilled = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            spilled.add(spill(store, i));
+        }
+        // only the last spilled result is kept on the heap
+        assertSame(results.get(2), store.get(spilled.get(2)));
+        for (int i = 0; i < 3; ++i) {
+            DataflowResult<Stmt, SetFact<Var>> reloaded = store.get(spilled.get(i));
+            assertNotSame(results.get(i), reloaded);
+            assertSameFacts(results.get(i), reloaded, cfgs.get(i));
+            // the reloaded result is cached until another one is queried
+            assertSame(reloaded, store.get(spilled.get(i)));
+            assertSameFacts(results.get(i), spilled.get(i), cfgs.get(i));
+        }
+        store.close();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClose() {
+        solve(1);
+        DataflowResultStore store = new DataflowResultStore("taie-test-", null, 1);
+        SpilledDataflowResult<Stmt, SetFact<Var>> spilled = spill(store, 0);
+        assertSameFacts(results.get(0), spilled, cfgs.get(0));
+        store.close();
+        spilled.getInFact(cfgs.get(0).getEntry());
+    }
+}
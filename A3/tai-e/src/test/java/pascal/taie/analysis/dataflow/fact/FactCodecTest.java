@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FactCodecTest {
+
+    private final List<Var> vars = Tests.newIntVars(70);
+
+    private final FactCodec<SetFact<Var>> codec =
+            FactCodec.ofSetFact(SetFact::new, vars::get);
+
+    private SetFact<Var> roundTrip(SetFact<Var> fact) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.encode(fact, new DataOutputStream(bytes));
+        return codec.decode(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    @Test
+    public void testSetFact() throws IOException {
+        assertNull(roundTrip(null));
+        assertEquals(new SetFact<>(), roundTrip(new SetFact<>()));
+        SetFact<Var> fact = new SetFact<>(List.of(
+                vars.get(0), vars.get(5), vars.get(63), vars.get(69)));
+        assertEquals(fact, roundTrip(fact));
+    }
+
+    @Test
+    public void testBitSetFact() throws IOException {
+        FactCodec<SetFact<Var>> bitSetCodec = FactCodec.ofSetFact(
+                () -> new BitSetFact<>(vars::get, vars.size()), vars::get);
+        BitSetFact<Var> fact = new BitSetFact<>(vars::get, vars.size());
+        fact.add(vars.get(1));
+        fact.add(vars.get(64));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitSetCodec.encode(fact, new DataOutputStream(bytes));
+        SetFact<Var> decoded = bitSetCodec.decode(new DataInputStream(
+                new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(BitSetFact.class, decoded.getClass());
+        assertEquals(fact, decoded);
+    }
+
+    @Test
+    public void testResult() {
+        Var x = vars.get(0), y = vars.get(1), z = vars.get(2);
+        IR ir = Tests.buildIR(List.of(), vars, List.of(
+                new AssignLiteral(x, IntLiteral.get(1)),
+                new AssignLiteral(y, IntLiteral.get(2)),
+                new Binary(z, new ArithmeticExp(ArithmeticExp.Op.ADD, x, y)),
+                new Return(z)));
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> result = new LiveVariableAnalysis(
+                new AnalysisConfig(LiveVariableAnalysis.ID)).analyze(ir);
+        DataflowResult<Stmt, SetFact<Var>> decoded = FactCodec.decodeResult(
+                cfg, FactCodec.encodeResult(cfg, result, codec), codec);
+        for (Stmt node : cfg) {
+            assertEquals(result.getInFact(node), decoded.getInFact(node));
+            assertEquals(result.getOutFact(node), decoded.getOutFact(node));
+        }
+    }
+}
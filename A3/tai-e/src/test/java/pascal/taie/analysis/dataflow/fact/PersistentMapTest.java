@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentMapTest {
+
+    /**
+     * Key whose hash code is given, so that keys can collide.
+     */
+    private record Key(int id, int hash) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key that && id == that.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        PersistentMap<String, Integer> map = new PersistentMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put("a", 1));
+        assertEquals(Integer.valueOf(1), map.put("a", 2));
+        map.put("b", 3);
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(2), map.get("a"));
+        assertTrue(map.containsKey("b"));
+        assertFalse(map.containsKey("c"));
+        assertNull(map.remove("c"));
+        assertEquals(Integer.valueOf(2), map.remove("a"));
+        assertNull(map.get("a"));
+        assertEquals(Map.of("b", 3), map);
+        map.remove("b");
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testCollisions() {
+        PersistentMap<Key, Integer> map = new PersistentMap<>();
+        Key k1 = new Key(1, 42), k2 = new Key(2, 42), k3 = new Key(3, 42);
+        Key other = new Key(4, 43);
+        map.put(k1, 1);
+        map.put(k2, 2);
+        map.put(k3, 3);
+        map.put(other, 4);
+        assertEquals(4, map.size());
+        assertEquals(Integer.valueOf(2), map.get(k2));
+        assertEquals(Integer.valueOf(2), map.put(k2, 20));
+        assertEquals(Integer.valueOf(20), map.get(k2));
+        assertNull(map.get(new Key(5, 42)));
+        assertNull(map.remove(new Key(5, 42)));
+        assertEquals(Integer.valueOf(1), map.remove(k1));
+        assertEquals(Integer.valueOf(20), map.get(k2));
+        assertEquals(Integer.valueOf(3), map.get(k3));
+        map.remove(k3);
+        assertEquals(Map.of(k2, 20, other, 4), map);
+        map.remove(k2);
+        map.remove(other);
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testForkIsolation() {
+        PersistentMap<Key, Integer> map = new PersistentMap<>();
+        for (int i = 0; i < 100; ++i) {
+            map.put(new Key(i, i % 7), i);
+        }
+        PersistentMap<Key, Integer> fork = map.fork();
+        assertTrue(map.isSameTrie(fork));
+        fork.put(new Key(0, 0), -1);
+        fork.remove(new Key(1, 1));
+        fork.put(new Key(100, 2), 100);
+        map.remove(new Key(2, 2));
+        assertFalse(map.isSameTrie(fork));
+        assertEquals(Integer.valueOf(0), map.get(new Key(0, 0)));
+        assertEquals(Integer.valueOf(1), map.get(new Key(1, 1)));
+        assertNull(map.get(new Key(100, 2)));
+        assertNull(map.get(new Key(2, 2)));
+        assertEquals(99, map.size());
+        assertEquals(Integer.valueOf(-1), fork.get(new Key(0, 0)));
+        assertNull(fork.get(new Key(1, 1)));
+        assertEquals(Integer.valueOf(2), fork.get(new Key(2, 2)));
+        assertEquals(100, fork.size());
+        // set() shares the trie, and later updates are still isolated
+        PersistentMap<Key, Integer> copy = new PersistentMap<>();
+        copy.set(fork);
+        assertTrue(copy.isSameTrie(fork));
+        copy.clear();
+        assertEquals(100, fork.size());
+    }
+
+    @Test
+    public void testAgreeWithHashMap() {
+        Random random = new Random(0);
+        PersistentMap<Key, Integer> map = new PersistentMap<>();
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> snapshot = map.fork();
+        Map<Key, Integer> expectedSnapshot = new HashMap<>();
+        for (int i = 0; i < 20000; ++i) {
+            // few distinct hash codes to produce many collisions
+            int id = random.nextInt(300);
+            Key key = new Key(id, id % 40);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                int value = random.nextInt();
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            if (i % 1000 == 0) {
+                assertEquals(expectedSnapshot, snapshot);
+                snapshot = map.fork();
+                expectedSnapshot = new HashMap<>(expected);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(expectedSnapshot, snapshot);
+    }
+
+    @Test
+    public void testFactsShareTries() {
+        PersistentMapFact<String, Integer> fact = new PersistentMapFact<>();
+        fact.update("a", 1);
+        PersistentMapFact<String, Integer> copy = fact.copy();
+        copy.update("b", 2);
+        assertEquals("{a=1}", fact.toString());
+        PersistentMapFact<String, Integer> target = new PersistentMapFact<>();
+        assertTrue(target.copyFrom(copy));
+        assertFalse(target.copyFrom(copy));
+        target.update("a", 3);
+        assertEquals("{a=1, b=2}", copy.toString());
+        assertEquals("{a=3, b=2}", target.toString());
+    }
+}
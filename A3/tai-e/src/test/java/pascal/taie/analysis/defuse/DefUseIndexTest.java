@@ -0,0 +1,137 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.defuse;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.ConditionExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Binary;
+import pascal.taie.ir.stmt.Copy;
+import pascal.taie.ir.stmt.Goto;
+import pascal.taie.ir.stmt.If;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class DefUseIndexTest {
+
+    /**
+     * <pre>
+     * 0: x = 0;
+     * 1: if (x >= p) goto 4;
+     * 2: x = x + p;
+     * 3: goto 1;
+     * 4: return x;
+     * </pre>
+     */
+    @Test
+    public void testLoop() {
+        List<Var> vars = Tests.newIntVars(2);
+        Var p = vars.get(0), x = vars.get(1);
+        If loop = new If(new ConditionExp(ConditionExp.Op.GE, x, p));
+        Goto back = new Goto();
+        Return ret = new Return(x);
+        loop.setTarget(ret);
+        back.setTarget(loop);
+        IR ir = Tests.buildIR(List.of(p), vars, List.<Stmt>of(
+                new AssignLiteral(x, IntLiteral.get(0)),
+                loop,
+                new Binary(x, new ArithmeticExp(ArithmeticExp.Op.ADD, x, p)),
+                back,
+                ret));
+        DefUseIndex index = DefUseIndex.of(ir);
+        int entry = index.getEntryIndex();
+        assertEquals(5, entry);
+        // use-def chains
+        assertArrayEquals(new int[]{0, 2}, index.getReachingDefs(1, x.getIndex()));
+        assertArrayEquals(new int[]{entry}, index.getReachingDefs(1, p.getIndex()));
+        assertArrayEquals(new int[]{0, 2}, index.getReachingDefs(2, x.getIndex()));
+        assertArrayEquals(new int[]{entry}, index.getReachingDefs(2, p.getIndex()));
+        assertArrayEquals(new int[]{0, 2}, index.getReachingDefs(4, x.getIndex()));
+        // def-use chains
+        assertArrayEquals(new int[]{1, 2, 4}, index.getReachedUses(0, x.getIndex()));
+        assertArrayEquals(new int[]{1, 2, 4}, index.getReachedUses(2, x.getIndex()));
+        assertArrayEquals(new int[]{}, index.getReachedUses(entry, x.getIndex()));
+        assertArrayEquals(new int[]{1, 2}, index.getReachedUses(entry, p.getIndex()));
+    }
+
+    /**
+     * <pre>
+     * 0: if (p < q) goto 3;
+     * 1: x = p;
+     * 2: goto 4;
+     * 3: y = q;
+     * 4: return x;
+     * </pre>
+     * where x is defined on one branch only.
+     */
+    @Test
+    public void testDiamond() {
+        List<Var> vars = Tests.newIntVars(4);
+        Var p = vars.get(0), q = vars.get(1), x = vars.get(2), y = vars.get(3);
+        If branch = new If(new ConditionExp(ConditionExp.Op.LT, p, q));
+        Goto merge = new Goto();
+        Copy defY = new Copy(y, q);
+        Return ret = new Return(x);
+        branch.setTarget(defY);
+        merge.setTarget(ret);
+        IR ir = Tests.buildIR(List.of(p, q), vars, List.<Stmt>of(
+                branch,
+                new Copy(x, p),
+                merge,
+                defY,
+                ret));
+        DefUseIndex index = DefUseIndex.of(ir);
+        int entry = index.getEntryIndex();
+        // use-def chains
+        assertArrayEquals(new int[]{entry}, index.getReachingDefs(0, p.getIndex()));
+        assertArrayEquals(new int[]{entry}, index.getReachingDefs(0, q.getIndex()));
+        assertArrayEquals(new int[]{entry}, index.getReachingDefs(1, p.getIndex()));
+        assertArrayEquals(new int[]{entry}, index.getReachingDefs(3, q.getIndex()));
+        assertArrayEquals(new int[]{1, entry}, index.getReachingDefs(4, x.getIndex()));
+        // def-use chains
+        assertArrayEquals(new int[]{0, 1}, index.getReachedUses(entry, p.getIndex()));
+        assertArrayEquals(new int[]{0, 3}, index.getReachedUses(entry, q.getIndex()));
+        assertArrayEquals(new int[]{4}, index.getReachedUses(entry, x.getIndex()));
+        assertArrayEquals(new int[]{4}, index.getReachedUses(1, x.getIndex()));
+        assertArrayEquals(new int[]{}, index.getReachedUses(3, y.getIndex()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotUsed() {
+        List<Var> vars = Tests.newIntVars(2);
+        IR ir = Tests.buildIR(List.of(), vars, List.<Stmt>of(
+                new Copy(vars.get(0), vars.get(1)),
+                new Return(vars.get(0))));
+        DefUseIndex.of(ir).getReachingDefs(0, vars.get(0).getIndex());
+    }
+}
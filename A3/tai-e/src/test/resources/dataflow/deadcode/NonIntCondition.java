@@ -0,0 +1,26 @@
+class NonIntCondition {
+
+    int compareReferences(Object p) {
+        int x = 0;
+        String s1 = (String) p;
+        String s2 = (String) p;
+        if (s1 == s2) {
+            x = 1;
+        }
+        return x;
+    }
+
+    int compareLongs(long p) {
+        int x = 0;
+        long a = source(p);
+        long b = source(p);
+        if (a > b) {
+            x = 1;
+        }
+        return x;
+    }
+
+    long source(long p) {
+        return p;
+    }
+}
@@ -0,0 +1,28 @@
+class UnmodeledCondition {
+
+    int call() {
+        int x = source(); // not a constant
+        int y;
+        if (x > 0) {
+            y = 1;
+        } else {
+            y = 2;
+        }
+        return y;
+    }
+
+    int negate(int p) {
+        int x = -p; // not a constant
+        int y;
+        if (x > 0) {
+            y = 1;
+        } else {
+            y = 2;
+        }
+        return y;
+    }
+
+    int source() {
+        return 1;
+    }
+}
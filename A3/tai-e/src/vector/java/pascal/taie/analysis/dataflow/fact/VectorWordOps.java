@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link WordOps} by the Vector API, which processes the words in
+ * SIMD registers of the preferred width of the platform. This class
+ * is loaded reflectively, so that {@link BitSetFact} works without
+ * module {@code jdk.incubator.vector}. It is kept in source set
+ * {@code vector}, which is on the class path of the benchmarks and of
+ * the opt-in tasks {@code runSimd} and {@code vectorTest} only, so that
+ * the default build does not need the incubator module.
+ */
+final class VectorWordOps extends WordOps {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    boolean or(long[] target, long[] source, int length) {
+        // accumulates the bits that are newly set
+        LongVector added = LongVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            LongVector t = LongVector.fromArray(SPECIES, target, i);
+            LongVector s = LongVector.fromArray(SPECIES, source, i);
+            added = added.or(s.lanewise(VectorOperators.AND_NOT, t));
+            t.or(s).intoArray(target, i);
+        }
+        boolean changed = added.reduceLanes(VectorOperators.OR) != 0;
+        for (; i < length; ++i) {
+            long oldWord = target[i];
+            target[i] = oldWord | source[i];
+            changed |= target[i] != oldWord;
+        }
+        return changed;
+    }
+
+    @Override
+    boolean and(long[] target, long[] source, int length) {
+        // accumulates the bits that are cleared
+        LongVector removed = LongVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            LongVector t = LongVector.fromArray(SPECIES, target, i);
+            LongVector s = LongVector.fromArray(SPECIES, source, i);
+            removed = removed.or(t.lanewise(VectorOperators.AND_NOT, s));
+            t.and(s).intoArray(target, i);
+        }
+        boolean changed = removed.reduceLanes(VectorOperators.OR) != 0;
+        for (; i < length; ++i) {
+            long oldWord = target[i];
+            target[i] = oldWord & source[i];
+            changed |= target[i] != oldWord;
+        }
+        return changed;
+    }
+
+    @Override
+    boolean andNot(long[] target, long[] source, int length) {
+        // accumulates the bits that are cleared
+        LongVector removed = LongVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            LongVector t = LongVector.fromArray(SPECIES, target, i);
+            LongVector s = LongVector.fromArray(SPECIES, source, i);
+            removed = removed.or(t.and(s));
+            t.lanewise(VectorOperators.AND_NOT, s).intoArray(target, i);
+        }
+        boolean changed = removed.reduceLanes(VectorOperators.OR) != 0;
+        for (; i < length; ++i) {
+            long oldWord = target[i];
+            target[i] = oldWord & ~source[i];
+            changed |= target[i] != oldWord;
+        }
+        return changed;
+    }
+
+    @Override
+    boolean equals(long[] words1, long[] words2, int length) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            LongVector v1 = LongVector.fromArray(SPECIES, words1, i);
+            LongVector v2 = LongVector.fromArray(SPECIES, words2, i);
+            if (!v1.eq(v2).allTrue()) {
+                return false;
+            }
+        }
+        for (; i < length; ++i) {
+            if (words1[i] != words2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
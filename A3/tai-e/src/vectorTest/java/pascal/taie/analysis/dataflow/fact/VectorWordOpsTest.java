@@ -0,0 +1,113 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class VectorWordOpsTest {
+
+    private static final int ROUNDS = 1000;
+
+    private final WordOps scalar = WordOps.SCALAR;
+
+    private final WordOps vector = new VectorWordOps();
+
+    private final Random random = new Random(0);
+
+    /**
+     * @return random words, which are sparse, dense or mixed, so that
+     * the operations both change and keep the targets.
+     */
+    private long[] randomWords(int length) {
+        long[] words = new long[length];
+        int kind = random.nextInt(3);
+        for (int i = 0; i < length; ++i) {
+            words[i] = switch (kind) {
+                case 0 -> 1L << random.nextInt(64);
+                case 1 -> ~(1L << random.nextInt(64));
+                default -> random.nextBoolean() ? random.nextLong() : 0;
+            };
+        }
+        return words;
+    }
+
+    private interface Op {
+        boolean apply(WordOps ops, long[] target, long[] source, int length);
+    }
+
+    /**
+     * Applies given operation to random words by both scalar and vector
+     * operations, and checks that the results agree.
+     */
+    private void testAgree(Op op) {
+        for (int round = 0; round < ROUNDS; ++round) {
+            // covers the lengths below, at and above the vector width
+            int capacity = random.nextInt(40);
+            int length = capacity == 0 ? 0 : random.nextInt(capacity + 1);
+            long[] target = randomWords(capacity);
+            long[] source = random.nextInt(4) == 0 ?
+                    target.clone() : randomWords(capacity);
+            long[] scalarTarget = target.clone();
+            long[] vectorTarget = target.clone();
+            assertEquals(op.apply(scalar, scalarTarget, source, length),
+                    op.apply(vector, vectorTarget, source, length));
+            assertArrayEquals(scalarTarget, vectorTarget);
+        }
+    }
+
+    @Test
+    public void testVectorized() {
+        assertSame(VectorWordOps.class, WordOps.vectorized().getClass());
+    }
+
+    @Test
+    public void testOr() {
+        testAgree(WordOps::or);
+    }
+
+    @Test
+    public void testAnd() {
+        testAgree(WordOps::and);
+    }
+
+    @Test
+    public void testAndNot() {
+        testAgree(WordOps::andNot);
+    }
+
+    @Test
+    public void testEquals() {
+        testAgree((ops, words1, words2, length) -> {
+            boolean equal = ops.equals(words1, words2, length);
+            assertEquals(Arrays.equals(words1, 0, length, words2, 0, length), equal);
+            return equal;
+        });
+    }
+}